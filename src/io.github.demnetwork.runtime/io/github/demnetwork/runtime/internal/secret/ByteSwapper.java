@@ -0,0 +1,72 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.internal.secret;
+
+import java.lang.reflect.Field;
+import sun.misc.Unsafe;
+
+/**
+ * Reverses the byte order of primitive elements in place, shared by the
+ * serial streams and the off-heap streams, which live in different packages.
+ */
+public final class ByteSwapper {
+    private static final Unsafe UNSAFE;
+    static {
+        try {
+            Field f = Unsafe.class.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            UNSAFE = (Unsafe) f.get(null);
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private ByteSwapper() {
+        throw new SecurityException();
+    }
+
+    /**
+     * Reverses the byte order of every element in the region, in place. The
+     * region is on-heap when <code>base</code> is not <code>null</code>.
+     */
+    public static void swap(Object base, long addr, long bytes, int scale) {
+        long end = addr + bytes;
+        switch (scale) {
+            case 2:
+                for (long a = addr; a < end; a += 2)
+                    UNSAFE.putShort(base, a, Short.reverseBytes(UNSAFE.getShort(base, a)));
+                break;
+            case 4:
+                for (long a = addr; a < end; a += 4)
+                    UNSAFE.putInt(base, a, Integer.reverseBytes(UNSAFE.getInt(base, a)));
+                break;
+            case 8:
+                for (long a = addr; a < end; a += 8)
+                    UNSAFE.putLong(base, a, Long.reverseBytes(UNSAFE.getLong(base, a)));
+                break;
+            default:
+                break; // Single bytes have no order
+        }
+    }
+}
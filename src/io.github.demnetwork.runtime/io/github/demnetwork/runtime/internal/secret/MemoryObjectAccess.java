@@ -0,0 +1,78 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.internal.secret;
+
+import java.io.IOException;
+import io.github.demnetwork.runtime.utils.memory.MemoryObject;
+import io.github.demnetwork.runtime.utils.memory.serial.MemorySerializable;
+
+/**
+ * Gives {@link io.github.demnetwork.runtime.utils.memory.reflect.MemoryObjectField
+ * MemoryObjectField} the package-private field accessors of
+ * {@link MemoryObject}, which lives in another package. The implementation is
+ * installed once, by the static initializer of {@link MemoryObject}.
+ */
+public abstract class MemoryObjectAccess {
+    private static volatile MemoryObjectAccess access;
+
+    protected MemoryObjectAccess() {
+    }
+
+    /** Installs the implementation. Can only be called once */
+    public static synchronized void setAccess(MemoryObjectAccess a) {
+        if (a == null)
+            throw new NullPointerException();
+        if (access != null)
+            throw new SecurityException("Access already installed");
+        access = a;
+    }
+
+    public static MemoryObjectAccess getAccess() {
+        MemoryObjectAccess a = access;
+        if (a == null) {
+            try {
+                Class.forName(MemoryObject.class.getName(), true, MemoryObject.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new InternalError(e);
+            }
+            a = access;
+        }
+        return a;
+    }
+
+    /** Reads a field, decoding it first if it was not loaded */
+    public abstract MemorySerializable getFieldValue(MemoryObject obj, int fieldID) throws IOException;
+
+    /**
+     * Sets the value of a field under the write lock of the object.
+     *
+     * @param ignoreFinal Whether final fields may be set
+     * @param flush       Whether the storage is written again
+     */
+    public abstract void setFieldValue(MemoryObject obj, int fieldID, MemorySerializable value,
+            boolean ignoreFinal, boolean flush) throws IOException;
+
+    /** Writes the fields of the object to its storage, under its write lock */
+    public abstract void flush(MemoryObject obj) throws IOException;
+}
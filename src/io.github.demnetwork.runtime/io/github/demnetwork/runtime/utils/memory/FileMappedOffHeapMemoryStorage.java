@@ -37,17 +37,40 @@ public non-sealed class FileMappedOffHeapMemoryStorage extends OffHeapMemoryStor
     protected final RandomAccessFile raf;
     protected final FileChannel channel;
     protected final MappedByteBuffer mapped;
+    private static final long MAPPED_ADDRESS_OFFSET;
+    static {
+        try {
+            MAPPED_ADDRESS_OFFSET = UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     public FileMappedOffHeapMemoryStorage(File file, long size) throws IOException {
-        super(mapBaseAddress(file, size), size);
+        this(file, size, map(file, size));
+    }
+
+    /** Uses the mapping that was passed, which must stay reachable while mapped */
+    private FileMappedOffHeapMemoryStorage(File file, long size, MappedByteBuffer mapped) throws IOException {
+        super(UNSAFE.getLong(mapped, MAPPED_ADDRESS_OFFSET), size);
         this.file = file;
         this.raf = new RandomAccessFile(file, "rw");
         this.channel = raf.getChannel();
-        this.raf.setLength(size);
-        this.mapped = channel.map(
-                FileChannel.MapMode.READ_WRITE, 0, size);
+        this.mapped = mapped;
+    }
+
+    private static MappedByteBuffer map(File file, long size) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(size);
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size); // Outlives the channel
+        }
     }
 
+    /**
+     * @deprecated The address is only valid while the mapped buffer, which is
+     *             not returned, is reachable
+     */
+    @Deprecated
     protected static long mapBaseAddress(File file, long size) throws IOException {
         try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
             raf.setLength(size);
@@ -83,7 +106,13 @@ public non-sealed class FileMappedOffHeapMemoryStorage extends OffHeapMemoryStor
             }
         }
         super.closed = true;
-        super.monitor.onClose();
+        super.closeStreams();
+    }
+
+    /** Writes the changes made to the mapped memory to the file */
+    public void force() {
+        this.ensureOpen();
+        this.mapped.force();
     }
 
     public File getFile() {
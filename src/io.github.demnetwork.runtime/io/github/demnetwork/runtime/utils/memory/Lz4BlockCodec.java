@@ -0,0 +1,189 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A small LZ4 block codec, used by {@link OffHeapMemorySnapshot}.
+ * <p>
+ * The produced data follows the LZ4 block format (token, literals, 2-byte
+ * little-endian offset, match length), without any frame header.
+ */
+final class Lz4BlockCodec {
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int HASH_LOG = 12;
+    private static final int MAX_DISTANCE = 65535;
+
+    private Lz4BlockCodec() {
+    }
+
+    /** @return The worst-case size of the compressed data */
+    static int maxCompressedLength(int len) {
+        return len + len / 255 + 16;
+    }
+
+    private static int readInt(byte[] b, int i) {
+        return (b[i] & 0xFF) | ((b[i + 1] & 0xFF) << 8) | ((b[i + 2] & 0xFF) << 16) | ((b[i + 3] & 0xFF) << 24);
+    }
+
+    private static int hash(int seq) {
+        return (seq * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static int writeLength(byte[] dst, int op, int n) {
+        while (n >= 255) {
+            dst[op++] = (byte) 255;
+            n -= 255;
+        }
+        dst[op++] = (byte) n;
+        return op;
+    }
+
+    private static int writeLiterals(byte[] src, int anchor, int litLen, byte[] dst, int op) {
+        int token = op++;
+        int t;
+        if (litLen >= 15) {
+            t = 15 << 4;
+            op = writeLength(dst, op, litLen - 15);
+        } else {
+            t = litLen << 4;
+        }
+        System.arraycopy(src, anchor, dst, op, litLen);
+        op += litLen;
+        dst[token] = (byte) t;
+        return op;
+    }
+
+    /**
+     * Compresses <code>src[0..len)</code> into <code>dst</code>
+     *
+     * @param dst Destination, must be at least {@link #maxCompressedLength(int)}
+     *            bytes long
+     * @return The length of the compressed data
+     */
+    static int compress(byte[] src, int len, byte[] dst) {
+        int anchor = 0;
+        int op = 0;
+        if (len > MF_LIMIT) {
+            int[] table = new int[1 << HASH_LOG];
+            Arrays.fill(table, -1);
+            int mfLimit = len - MF_LIMIT;
+            int matchLimit = len - LAST_LITERALS;
+            int ip = 0;
+            while (ip < mfLimit) {
+                int seq = readInt(src, ip);
+                int h = hash(seq);
+                int ref = table[h];
+                table[h] = ip;
+                if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != seq) {
+                    ip++;
+                    continue;
+                }
+                while (ip > anchor && ref > 0 && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLen = MIN_MATCH;
+                while (ip + matchLen < matchLimit && src[ip + matchLen] == src[ref + matchLen])
+                    matchLen++;
+                int token = op;
+                op = writeLiterals(src, anchor, ip - anchor, dst, op);
+                int off = ip - ref;
+                dst[op++] = (byte) off;
+                dst[op++] = (byte) (off >>> 8);
+                int ml = matchLen - MIN_MATCH;
+                if (ml >= 15) {
+                    dst[token] |= 15;
+                    op = writeLength(dst, op, ml - 15);
+                } else {
+                    dst[token] |= (byte) ml;
+                }
+                ip += matchLen;
+                anchor = ip;
+                if (ip - 2 < mfLimit)
+                    table[hash(readInt(src, ip - 2))] = ip - 2;
+            }
+        }
+        return writeLiterals(src, anchor, len - anchor, dst, op);
+    }
+
+    /**
+     * Decompresses <code>src[0..srcLen)</code> into <code>dst</code>
+     *
+     * @return The length of the decompressed data
+     * @throws IOException If the data is corrupt or does not fit
+     *                     <code>dst</code>
+     */
+    static int decompress(byte[] src, int srcLen, byte[] dst, int dstLen) throws IOException {
+        int ip = 0;
+        int op = 0;
+        try {
+            while (ip < srcLen) {
+                int token = src[ip++] & 0xFF;
+                int lit = token >>> 4;
+                if (lit == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        lit += b;
+                    } while (b == 255);
+                }
+                if (ip + lit > srcLen || op + lit > dstLen)
+                    throw new IOException("Corrupt compressed block");
+                System.arraycopy(src, ip, dst, op, lit);
+                ip += lit;
+                op += lit;
+                if (ip >= srcLen)
+                    break; // Last sequence has no match
+                int off = (src[ip++] & 0xFF) | ((src[ip++] & 0xFF) << 8);
+                int ml = token & 15;
+                if (ml == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        ml += b;
+                    } while (b == 255);
+                }
+                ml += MIN_MATCH;
+                int ref = op - off;
+                if (off == 0 || ref < 0 || op + ml > dstLen)
+                    throw new IOException("Corrupt compressed block");
+                if (off >= ml) {
+                    System.arraycopy(dst, ref, dst, op, ml);
+                } else {
+                    for (int i = 0; i < ml; i++)
+                        dst[op + i] = dst[ref + i]; // Overlapping copy
+                }
+                op += ml;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt compressed block", e);
+        }
+        return op;
+    }
+}
@@ -29,9 +29,11 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import io.github.demnetwork.runtime.internal.secret.MemoryObjectAccess;
 import io.github.demnetwork.runtime.utils.Table;
 import io.github.demnetwork.runtime.utils.memory.serial.MemoryInputStream;
 import io.github.demnetwork.runtime.utils.memory.serial.MemoryOutputStream;
@@ -39,13 +41,84 @@ import io.github.demnetwork.runtime.utils.memory.serial.MemorySerializable;
 import io.github.demnetwork.runtime.utils.memory.serial.NullWrapper;
 import io.github.demnetwork.runtime.utils.memory.serial.StringWrapper;
 import sun.misc.Unsafe;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveArrayWrappers.LongArrayWrapper;
 import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.IntWrapper;
 import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.LongWrapper;
 
 public abstract class MemoryObject implements Closeable, MemorySerializable {
     protected final OffHeapMemoryStorage storage;
     final Table fields;
+    /**
+     * Index of the name column of {@link #fields}. It is never modified, but
+     * replaced by a copy under the write lock, so it is read without the lock.
+     */
+    private volatile Map<String, Integer> fieldIDs;
+    /** Cached shape of the fields, <code>null</code> until needed */
+    private MemoryObjectShape shape = null;
+    private final boolean lazy;
+    /** Amount of fields whose value is still {@link #UNLOADED} */
+    int unloaded = 0;
+    /** Sequence of the write lock, odd while a writer holds it */
+    private volatile long seq = 0L;
+    /** Holder of the write lock, only written by the holder itself */
+    private Thread writer = null;
+    private int writeDepth = 0;
+    /** Copy of the last committed image, shared by the snapshots taken since */
+    private volatile MemoryObjectSnapshot.Image image = null;
+    /** Placeholder of a value that was not decoded from the storage yet */
+    static final MemorySerializable UNLOADED = new MemorySerializable() {
+
+        @Override
+        public void writeObj(MemoryOutputStream mos) throws IOException {
+            throw new IOException("Unloaded field value");
+        }
+
+        @Override
+        public MemorySerializable readObj(MemoryInputStream mis) throws IOException {
+            throw new IOException("Unloaded field value");
+        }
+
+    };
     protected static final int FIELD_MODIFIERS = Modifier.fieldModifiers();
+    private static final Field STORAGE_FIELD;
+    private static final Field FIELDS_FIELD;
+    private static final long STORAGE_OFFSET;
+    private static final long FIELDS_OFFSET;
+    private static final long TABLE_DATA_OFFSET;
+    private static final long SEQ_OFFSET;
+    private static final long IMAGE_OFFSET;
+    static {
+        try {
+            SEQ_OFFSET = UNSAFE.objectFieldOffset(MemoryObject.class.getDeclaredField("seq"));
+            IMAGE_OFFSET = UNSAFE.objectFieldOffset(MemoryObject.class.getDeclaredField("image"));
+            STORAGE_FIELD = MemoryObject.class.getDeclaredField("storage");
+            FIELDS_FIELD = MemoryObject.class.getDeclaredField("fields");
+            STORAGE_OFFSET = UNSAFE.objectFieldOffset(STORAGE_FIELD);
+            FIELDS_OFFSET = UNSAFE.objectFieldOffset(FIELDS_FIELD);
+            TABLE_DATA_OFFSET = UNSAFE.objectFieldOffset(Table.class.getDeclaredField("data"));
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        MemoryObjectAccess.setAccess(new MemoryObjectAccess() {
+
+            @Override
+            public MemorySerializable getFieldValue(MemoryObject obj, int fieldID) throws IOException {
+                return obj.getFieldValue(fieldID);
+            }
+
+            @Override
+            public void setFieldValue(MemoryObject obj, int fieldID, MemorySerializable value, boolean ignoreFinal,
+                    boolean flush) throws IOException {
+                obj.setFieldValue(fieldID, value, ignoreFinal, flush);
+            }
+
+            @Override
+            public void flush(MemoryObject obj) throws IOException {
+                obj.pullMem(); // Takes the write lock itself
+            }
+
+        });
+    }
 
     /**
      * @deprecated This constructor allocates an {@link OffHeapMemoryStorage} on
@@ -74,6 +147,18 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
     }
 
     protected MemoryObject(OffHeapMemoryStorage storage, long size, boolean interpretData) {
+        this(storage, size, interpretData, false);
+    }
+
+    /**
+     * @param lazy Whether the values of the interpreted fields are decoded on
+     *             first access instead of up front. Only the field index is read
+     *             while interpreting, so reading a few fields of a large object
+     *             costs in proportion to the fields read. It has no effect if
+     *             <code>interpretData</code> is <code>false</code>.
+     */
+    protected MemoryObject(OffHeapMemoryStorage storage, long size, boolean interpretData, boolean lazy) {
+        this.lazy = lazy;
         if (storage == null)
             throw new NullPointerException();
         if (size > 0 && storage.size != size)
@@ -81,6 +166,7 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
         if (!interpretData) {
             this.storage = storage;
             this.fields = new Table(4, String.class, MemorySerializable.class, int.class, long.class);
+            this.fieldIDs = Collections.emptyMap();
             this.setupSentinelRow();
         } else {
             try (OffHeapMemoryInputStream mis = storage.toInputStream(false);) {
@@ -89,7 +175,8 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
                     throw new IllegalArgumentException("Size does not match the declared size");
                 this.storage = storage;
                 this.fields = new Table(4, String.class, MemorySerializable.class, int.class, long.class);
-                this.interpretData(((IntWrapper) mis.readObj()).intValue(), this.fields);
+                this.fieldIDs = Collections.emptyMap();
+                this.interpretData(((IntWrapper) mis.readObj()).intValue() + 1, this.fields);
             } catch (Exception e) {
                 if (e instanceof RuntimeException)
                     throw (RuntimeException) e;
@@ -98,8 +185,30 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
         }
     }
 
+    /**
+     * Creates a lazy object over the storage of another one, reusing its
+     * interpreted layout instead of reading the field index again. The field
+     * index of the template is shared, so neither object may add fields.
+     */
+    MemoryObject(MemoryObject template) {
+        this.lazy = true;
+        this.storage = template.storage;
+        Object[][] src = template.table();
+        int rows = src[0].length;
+        this.fields = new Table(4, rows, String.class, MemorySerializable.class, int.class, long.class);
+        Object[][] dst = table();
+        System.arraycopy(src[0], 0, dst[0], 0, rows);
+        System.arraycopy(src[2], 0, dst[2], 0, rows);
+        System.arraycopy(src[3], 0, dst[3], 0, rows);
+        for (int i = 1; i < rows; i++)
+            dst[1][i] = UNLOADED;
+        this.fieldIDs = template.fieldIDs;
+        this.shape = template.shape;
+        this.unloaded = rows - 1;
+    }
+
     void setupSentinelRow() {
-        this.fields.set("null", 0, 0);
+        this.setName(this.fields, "null", 0);
         this.fields.set(null, 1, 0);
         this.fields.set(0, 2, 0);
         this.fields.set(-1L, 3, 0);
@@ -120,23 +229,76 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
         ensureOpen();
         if (name == null)
             throw new NullPointerException();
-        if (this.fields.getLocationsOf(name).length != 0)
-            throw new IllegalArgumentException("Duplicate Field: " + name);
         mod = mod & FIELD_MODIFIERS;
         if ((mod & (Modifier.STATIC | Modifier.TRANSIENT)) != 0)
             throw new IllegalArgumentException("Cannot have static nor Transient fields to be serialized to memory");
-        int fieldID = this.fields.getRowCount();
-        this.fields.set(name, 0, fieldID);
-        this.fields.set(obj, 1, fieldID);
-        this.fields.set(mod, 2, fieldID);
-        if (deserializationMode && offset >= 0) {
-            this.fields.set(offset, 3, fieldID);
+        ensureWritable();
+        lockWrite();
+        int fieldID;
+        try {
+            if (this.fieldIDs.containsKey(name))
+                throw new IllegalArgumentException("Duplicate Field: " + name);
+            fieldID = this.fields.getRowCount();
+            this.shape = null;
+            this.setName(this.fields, name, fieldID);
+            this.fields.set(obj, 1, fieldID);
+            this.fields.set(mod, 2, fieldID);
+            if (deserializationMode && offset >= 0) {
+                this.fields.set(offset, 3, fieldID);
+            }
+            if (rtupdate && !deserializationMode)
+                this.pullMem(); // This should not be done during deserialization
+        } finally {
+            unlockWrite();
         }
-        if (rtupdate && !deserializationMode)
-            this.pullMem(); // This should not be done during deserialization
         return fieldID;
     }
 
+    /** Sets the name of a field, keeping the name index up to date */
+    private void setName(Table fields, String name, int fieldID) {
+        fields.set(name, 0, fieldID);
+        if (fields == this.fields) {
+            HashMap<String, Integer> m = new HashMap<>(this.fieldIDs);
+            m.put(name, Integer.valueOf(fieldID));
+            this.fieldIDs = Collections.unmodifiableMap(m);
+        }
+    }
+
+    /** Rebuilds the name index from the name column of {@link #fields} */
+    private void indexNames() {
+        int len = this.fields.getRowCount();
+        HashMap<String, Integer> m = new HashMap<>(len * 2);
+        for (int i = 1; i < len; i++)
+            m.put((String) this.fields.get(0, i), Integer.valueOf(i));
+        this.fieldIDs = Collections.unmodifiableMap(m);
+    }
+
+    /**
+     * Reads a cell of {@link #fields} without the write lock, retrying while a
+     * writer changes them
+     *
+     * @return The cell, or <code>null</code> if the field does not exist
+     */
+    final Object readCell(int column, int fieldID) {
+        for (;;) {
+            long s = beginRead();
+            Object[] col = table()[column];
+            Object v = fieldID >= 0 && fieldID < col.length ? col[fieldID] : null;
+            if (validateRead(s))
+                return v;
+        }
+    }
+
+    /** @return The amount of rows of {@link #fields}, read like {@link #readCell(int, int)} */
+    final int rowCount() {
+        for (;;) {
+            long s = beginRead();
+            int n = table()[0].length;
+            if (validateRead(s))
+                return n;
+        }
+    }
+
     protected final int[] addFields(FieldData[] data) throws IOException {
         ensureOpen();
         if (data == null)
@@ -160,47 +322,306 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
         return ids;
     }
 
+    /**
+     * Whether the storage of this object holds a {@link MemoryObjectShape}
+     * instead of the name, modifiers and offset of every field. Subclasses whose
+     * instances share the same fields should return <code>true</code>.
+     * <p>
+     * Both layouts can always be interpreted, in any process, since the storage
+     * holds the shape itself and not only its ID.
+     */
+    protected boolean usesShapes() {
+        return false;
+    }
+
+    /**
+     * Whether interpreted field values are decoded on first access. Objects read
+     * by {@link #readObj(MemoryInputStream)} are not constructed, so subclasses
+     * that want them to be lazy should override this method.
+     * <p>
+     * Data written without a field index is always decoded up front.
+     */
+    protected boolean isLazy() {
+        return this.lazy;
+    }
+
+    /**
+     * Decodes the value of the field if it was not accessed yet
+     *
+     * @throws IOException If an I/O Operation went wrong
+     */
+    public final void load(int fieldID) throws IOException {
+        ensureOpen();
+        if (fieldID >= rowCount() || fieldID < 0)
+            throw new IllegalArgumentException("Illegal Field ID: " + fieldID);
+        if (this.unloaded == 0 || readCell(1, fieldID) != UNLOADED)
+            return;
+        lockWrite();
+        try (OffHeapMemoryInputStream is = storage.toInputStream(false)) {
+            if (this.fields.get(1, fieldID) != UNLOADED)
+                return; // Loaded by another thread
+            is.setOffset(((Long) this.fields.get(3, fieldID)).longValue());
+            this.fields.set(is.readObj(), 1, fieldID);
+            this.unloaded--;
+        } catch (InstantiationException e) {
+            throw new IOException("Failed to decode field: " + this.fields.get(0, fieldID), e);
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /**
+     * Decodes the values of all the fields that were not accessed yet
+     *
+     * @throws IOException If an I/O Operation went wrong
+     */
+    public final void load() throws IOException {
+        for (int i = 1; this.unloaded > 0 && i < rowCount(); i++)
+            load(i);
+    }
+
+    /** @return The interned shape of the current fields */
+    protected final MemoryObjectShape getShape() {
+        MemoryObjectShape s = this.shape;
+        if (s == null) {
+            int len = this.fields.getRowCount() - 1;
+            String[] names = new String[len];
+            int[] mods = new int[len];
+            for (int i = 0; i < len; i++) {
+                names[i] = (String) this.fields.get(0, i + 1);
+                mods[i] = ((Integer) this.fields.get(2, i + 1)).intValue();
+            }
+            s = MemoryObjectShape.of(names, mods);
+            this.shape = s;
+        }
+        return s;
+    }
+
     /**
      * Updates the OffHeapMemoryStorage
+     * <p>
+     * This is the only writer of the layout, so overrides must call it instead
+     * of writing the fields themselves.
      * 
      * @throws IOException If an I/O Operation Went wrong
      */
     protected void pullMem() throws IOException {
         ensureOpen();
-        try (OffHeapMemoryOutputStream os = this.storage.toOutputStream(false)) {
-            os.writeObj(new LongWrapper(this.storage.size));
-            os.writeObj(new IntWrapper(this.fields.getRowCount() - 1));
-            for (int i = 1; i < this.fields.getRowCount(); i++) {
-                os.writeObj(new StringWrapper((String) this.fields.get(0, i)));
-                long off = os.getOffset();
-                this.fields.set(off, 3, i);
-                os.writeObj((MemorySerializable) this.fields.get(1, i));
-                os.writeObj(new IntWrapper(((Integer) this.fields.get(2, i)).intValue()));
-                os.writeObj(new LongWrapper(off));
+        ensureWritable();
+        lockWrite();
+        try {
+            load(); // Unloaded values are about to be overwritten
+            int len = this.fields.getRowCount();
+            boolean shaped = usesShapes();
+            // The index holds the value offsets, or the name and modifier offsets of
+            // every record, so lazy readers never need to skip over values
+            long[] index = new long[shaped ? len - 1 : 2 * (len - 1)];
+            try (OffHeapMemoryOutputStream os = this.storage.toOutputStream(false)) {
+                os.writeObj(new LongWrapper(this.storage.size));
+                os.writeObj(new IntWrapper(len - 1));
+                long indexOff = os.getOffset();
+                os.writeObj(new LongArrayWrapper(index)); // Patched once the offsets are known
+                if (shaped) {
+                    os.writeObj(getShape()); // Interpreting the storage does not depend on the process
+                    for (int i = 1; i < len; i++) {
+                        long off = os.getOffset();
+                        index[i - 1] = off;
+                        this.fields.set(off, 3, i);
+                        os.writeObj((MemorySerializable) this.fields.get(1, i));
+                    }
+                } else {
+                    for (int i = 1; i < len; i++) {
+                        index[2 * (i - 1)] = os.getOffset();
+                        os.writeObj(new StringWrapper((String) this.fields.get(0, i)));
+                        long off = os.getOffset();
+                        this.fields.set(off, 3, i);
+                        os.writeObj((MemorySerializable) this.fields.get(1, i));
+                        index[2 * (i - 1) + 1] = os.getOffset();
+                        os.writeObj(new IntWrapper(((Integer) this.fields.get(2, i)).intValue()));
+                        os.writeObj(new LongWrapper(off));
+                    }
+                }
+                os.setOffset(indexOff);
+                os.writeObj(new LongArrayWrapper(index));
             }
+        } finally {
+            unlockWrite();
         }
     }
 
     protected final void setField(MemorySerializable obj, int fieldID) throws IOException {
+        this.setFieldValue(fieldID, obj, false, true);
+    }
+
+    /**
+     * Sets the value of a field under the write lock. This is the entry point of
+     * {@link io.github.demnetwork.runtime.utils.memory.reflect.MemoryObjectField
+     * MemoryObjectField}, which reaches it through {@link MemoryObjectAccess}.
+     *
+     * @param ignoreFinal Whether final fields may be set
+     * @param flush       Whether the storage is written again, by
+     *                    {@link #pullMem()}
+     */
+    final void setFieldValue(int fieldID, MemorySerializable obj, boolean ignoreFinal, boolean flush)
+            throws IOException {
         ensureOpen();
-        if (fieldID >= this.fields.getRowCount())
-            throw new IllegalArgumentException("Non-existant field");
-        int mod = (Integer) this.fields.get(2, fieldID);
-        if ((mod & Modifier.FINAL) != 0)
-            throw new IllegalArgumentException("Cannot modify field, because it is final");
+        ensureWritable();
+        lockWrite();
+        try {
+            if (fieldID >= this.fields.getRowCount() || fieldID <= 0)
+                throw new IllegalArgumentException("Non-existant field");
+            int mod = (Integer) this.fields.get(2, fieldID);
+            if (!ignoreFinal && (mod & Modifier.FINAL) != 0)
+                throw new IllegalArgumentException("Cannot modify field, because it is final");
+            this.putValue(obj, fieldID);
+            if (flush)
+                this.pullMem();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    /** The reading counterpart of {@link #setFieldValue(int, MemorySerializable, boolean, boolean)} */
+    final MemorySerializable getFieldValue(int fieldID) throws IOException {
+        return getField(fieldID);
+    }
+
+    /**
+     * Acquires the write lock, which serializes every change to the fields and
+     * to the storage. The lock is reentrant.
+     * <p>
+     * The lock is a sequence lock: its sequence is odd while it is held, and
+     * readers of the storage use {@link #beginRead()} and
+     * {@link #validateRead(long)} to detect concurrent writes, without taking
+     * the lock.
+     */
+    final void lockWrite() {
+        Thread t = Thread.currentThread();
+        if (this.writer == t) {
+            this.writeDepth++;
+            return;
+        }
+        for (;;) {
+            long s = this.seq;
+            if ((s & 1L) == 0L && UNSAFE.compareAndSwapLong(this, SEQ_OFFSET, s, s + 1L))
+                break;
+            Thread.onSpinWait();
+        }
+        this.writer = t;
+        this.writeDepth = 1;
+    }
+
+    final void unlockWrite() {
+        if (this.writer != Thread.currentThread())
+            throw new IllegalMonitorStateException("Write lock not held");
+        if (--this.writeDepth > 0)
+            return;
+        this.writer = null;
+        this.seq = this.seq + 1L; // Volatile write, publishes the changes
+    }
+
+    /** @return The sequence to pass to {@link #validateRead(long)} */
+    final long beginRead() {
+        if (this.writer == Thread.currentThread())
+            return this.seq;
+        long s;
+        while (((s = this.seq) & 1L) != 0L)
+            Thread.onSpinWait();
+        return s;
+    }
+
+    /** @return Whether no write happened since {@link #beginRead()} */
+    final boolean validateRead(long s) {
+        UNSAFE.loadFence(); // Orders the data reads before the sequence read
+        return this.seq == s;
+    }
+    /** Replaces the value of a field, without decoding the previous one */
+    private void putValue(MemorySerializable obj, int fieldID) {
+        if (this.unloaded > 0 && this.fields.get(1, fieldID) == UNLOADED)
+            this.unloaded--;
         this.fields.set(obj, 1, fieldID);
-        this.pullMem();
+    }
+
+    /**
+     * Starts a batch of updates, which are applied together by
+     * {@link Editor#commit()}, with a single flush to the storage
+     */
+    public Editor edit() throws IOException {
+        ensureOpen();
+        ensureWritable();
+        return new Editor(this);
+    }
+
+    /**
+     * Returns a read-only view of the last committed state of this object. The
+     * view does not change when this object is written afterwards, and reading
+     * it never blocks the writers of this object.
+     * <p>
+     * The committed image is copied once after every write, and the snapshots
+     * taken until the next write share that copy, so taking a snapshot of an
+     * object that is mostly read is cheap. The values of a snapshot are decoded
+     * on first access.
+     *
+     * @apiNote Snapshots should be closed once they are no longer needed, so
+     *          the copy can be released
+     * @throws IOException If an I/O Operation went wrong
+     */
+    public MemoryObjectSnapshot snapshot() throws IOException {
+        ensureOpen();
+        boolean shaped = usesShapes();
+        for (;;) {
+            long s = beginRead();
+            MemoryObjectSnapshot.Image img = this.image;
+            if (img != null && img.version == s && img.retain())
+                return MemoryObjectSnapshot.open(img, shaped);
+            OffHeapMemoryStorage copy = new OffHeapMemoryStorage(this.storage.size, true);
+            this.storage.copyTo(copy, 0L, 0L, this.storage.size);
+            if (!validateRead(s)) { // A writer got in, the copy may be torn
+                copy.close();
+                continue;
+            }
+            MemoryObjectSnapshot.Image n = new MemoryObjectSnapshot.Image(copy, s); // Held by the caller
+            if ((s & 1L) == 0L) { // Only committed images are shared, not the one of a running write
+                n.retain(); // Held by this object
+                if (UNSAFE.compareAndSwapObject(this, IMAGE_OFFSET, img, n)) {
+                    if (img != null)
+                        img.release();
+                } else {
+                    n.release();
+                }
+            }
+            return MemoryObjectSnapshot.open(n, shaped);
+        }
+    }
+
+    /**
+     * Whether the fields of this object cannot be changed. Read-only objects
+     * reject every write with an {@link UnsupportedOperationException}.
+     */
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    final void ensureWritable() {
+        if (isReadOnly())
+            throw new UnsupportedOperationException("Read-only MemoryObject");
     }
 
     @Override
     public MemoryObject readObj(MemoryInputStream mis) throws IOException {
         // No ensure-open. because we may not rely on state
         try {
-            OffHeapMemoryStorage storage = new OffHeapMemoryStorage(((LongWrapper) mis.readObj()).longValue(), true);
+            MemorySerializable first = mis.readObj();
+            OffHeapMemoryStorage storage = new OffHeapMemoryStorage(((LongWrapper) first).longValue(), true);
             int fc = ((IntWrapper) mis.readObj()).intValue() + 1;
-            setupFields(storage);
-            transferData(mis, fc);
-            interpretData(fc, this.fields);
+            lockWrite(); // Replaces the fields, so cached snapshot images are stale
+            try {
+                setupFields(storage);
+                transferData(mis, fc);
+                interpretData(fc, this.fields);
+            } finally {
+                unlockWrite();
+            }
             return this;
         } catch (InstantiationException e) {
             throw new IOException("Reading failed due to an InstantiationException", e);
@@ -213,40 +634,106 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
 
     /** Called upon deserialization to setup fields */
     protected void setupFields(OffHeapMemoryStorage storage) throws NoSuchFieldException {
-        setupFields(storage, MemoryObject.class.getDeclaredField("storage"),
-                MemoryObject.class.getDeclaredField("fields"));
+        setupFields(storage, STORAGE_FIELD, FIELDS_FIELD);
     }
 
     protected void setupFields(OffHeapMemoryStorage storage, Field storageField, Field tableField) {
-        UNSAFE.putObject(this, UNSAFE.objectFieldOffset(storageField), storage);
-        UNSAFE.putObject(this, UNSAFE.objectFieldOffset(tableField),
+        UNSAFE.putObject(this, offsetOf(storageField), storage);
+        UNSAFE.putObject(this, offsetOf(tableField),
                 new Table(4, String.class, MemorySerializable.class, int.class, long.class));
+        this.fieldIDs = Collections.emptyMap();
+    }
+
+    /** @return The offset of the field, without a lookup for the fields of this class */
+    private static long offsetOf(Field f) {
+        if (f.equals(STORAGE_FIELD))
+            return STORAGE_OFFSET;
+        if (f.equals(FIELDS_FIELD))
+            return FIELDS_OFFSET;
+        return UNSAFE.objectFieldOffset(f);
     }
 
     protected void interpretData(int fc, Table fields) throws IOException, InstantiationException {
         try (OffHeapMemoryInputStream is = storage.toInputStream(false)) {
             is.readObj(); // This is ignored
             is.readObj(); // Also ignored, because we already know that data
+            this.shape = null;
+            this.unloaded = 0;
+            if (fields == this.fields)
+                this.fieldIDs = Collections.emptyMap();
+            if (fc <= 1)
+                return;
+            MemorySerializable first = is.readObj();
+            LongArrayWrapper index = null;
+            if (first instanceof LongArrayWrapper) { // Field index
+                index = (LongArrayWrapper) first;
+                first = is.readObj();
+            }
+            boolean deferred = index != null && isLazy();
+            if (first instanceof MemoryObjectShape) { // Reading the shape interned it
+                MemoryObjectShape s = (MemoryObjectShape) first;
+                if (s.getFieldCount() != fc - 1)
+                    throw new IOException("Field count does not match the shape");
+                if (deferred) {
+                    if (index.length() != fc - 1)
+                        throw new IOException("Corrupt field index");
+                    for (int i = 1; i < fc; i++) {
+                        fields.set(s.getName(i - 1), 0, i);
+                        fields.set(UNLOADED, 1, i);
+                        fields.set(s.getModifiers(i - 1), 2, i);
+                        fields.set(index.get(i - 1), 3, i);
+                    }
+                    this.unloaded = fc - 1;
+                    this.shape = s;
+                    return;
+                }
+                for (int i = 1; i < fc; i++) {
+                    fields.set(s.getName(i - 1), 0, i);
+                    fields.set(is.getOffset(), 3, i);
+                    fields.set(is.readObj(), 1, i);
+                    fields.set(s.getModifiers(i - 1), 2, i);
+                }
+                this.shape = s;
+                return;
+            }
+            if (deferred) {
+                if (index.length() != 2 * (fc - 1))
+                    throw new IOException("Corrupt field index");
+                for (int i = 1; i < fc; i++) {
+                    is.setOffset(index.get(2 * (i - 1)));
+                    fields.set(((StringWrapper) is.readObj()).getValue(), 0, i);
+                    fields.set(UNLOADED, 1, i);
+                    fields.set(is.getOffset(), 3, i);
+                    is.setOffset(index.get(2 * (i - 1) + 1));
+                    fields.set(((IntWrapper) is.readObj()).getValue(), 2, i);
+                }
+                this.unloaded = fc - 1;
+                return;
+            }
             for (int i = 1; i < fc; i++) {
-                fields.set(((StringWrapper) is.readObj()).getValue(), 0, i);
+                fields.set(((StringWrapper) (i == 1 ? first : is.readObj())).getValue(), 0, i);
                 fields.set(is.readObj(), 1, i);
                 fields.set(((IntWrapper) is.readObj()).getValue(), 2, i);
                 fields.set(((LongWrapper) is.readObj()).getValue(), 3, i);
             }
+        } finally {
+            if (fields == this.fields)
+                indexNames();
         }
     }
 
     protected void transferData(MemoryInputStream mis, int fc) throws IOException {
         try (OffHeapMemoryOutputStream os = storage.toOutputStream(false)) {
-            os.writeObj(new LongWrapper(storage.size));
-            os.writeObj(new IntWrapper(fc));
-            byte[] buf = new byte[Math.min(4096,
-                    os.remaining() > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) os.remaining())];
-            while (os.remaining() > 0) {
-                int r = mis.read(buf, 0, buf.length);
-                if (r == -1)
+            int format = os.getFormat();
+            os.setFormat(mis.getIdFormat()); // The stored field offsets depend on the header size
+            try {
+                os.writeObj(new LongWrapper(storage.size));
+                os.writeObj(new IntWrapper(fc));
+                long n = os.remaining();
+                if (os.transferFrom(mis, n) != n) // A single copy when the stream is off-heap
                     throw new EOFException("Corrupt Data");
-                os.write(buf, 0, r);
+            } finally {
+                os.setFormat(format);
             }
         }
     }
@@ -256,20 +743,26 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
         ensureOpen();
         if (fieldID <= 0)
             throw new IllegalArgumentException("Illegal FieldID");
+        ensureWritable();
+        load(fieldID);
+        lockWrite(); // The flush must not interleave with other writers
         try {
-            Object[][] arr0 = (Object[][]) UNSAFE.getObject(this.fields,
-                    UNSAFE.objectFieldOffset(Table.class.getDeclaredField("data")));
-            Object[] arr1 = arr0[1];
+            Object[] arr1 = table()[1];
             boolean b = UNSAFE.compareAndSwapObject(arr1,
                     Unsafe.ARRAY_OBJECT_BASE_OFFSET + Unsafe.ARRAY_OBJECT_INDEX_SCALE * fieldID, compare, swap);
             if (b)
                 pullMem();
             return b;
-        } catch (NoSuchFieldException e) {
-            throw new IOException("Something went wrong", e);
+        } finally {
+            unlockWrite();
         }
     }
 
+    /** @return The columns of {@link #fields}, without copying them */
+    final Object[][] table() {
+        return (Object[][]) UNSAFE.getObject(this.fields, TABLE_DATA_OFFSET);
+    }
+
     /**
      * Writes the body of this object to the
      * {@link io.github.demnetwork.runtime.utils.memory.serial.MemoryOutputStream}
@@ -284,8 +777,13 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
     @Override
     public void writeObj(MemoryOutputStream mos) throws IOException {
         ensureOpen();
-        pullMem();
-        pushMem(mos);
+        lockWrite(); // Keeps the storage from changing while it is dumped
+        try {
+            pullMem();
+            pushMem(mos);
+        } finally {
+            unlockWrite();
+        }
     }
 
     /**
@@ -307,23 +805,28 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
 
     protected final MemorySerializable getField(int fieldID) throws IOException {
         ensureOpen();
-        if (fieldID >= this.fields.getRowCount() || fieldID < 0)
-            throw new IllegalArgumentException("Illegal Field ID: " + fieldID);
-        return (MemorySerializable) this.fields.get(1, fieldID);
+        load(fieldID); // Also checks the ID
+        return (MemorySerializable) readCell(1, fieldID);
     }
 
-    protected final int getFieldID(String name) throws IOException, NoSuchFieldException {
+    /**
+     * Resolves the ID of a field, in constant time. The ID stays valid for the
+     * lifetime of this object, so it may be resolved once and passed to
+     * {@link #get(int)} and {@link #set(int, Object)}.
+     */
+    public final int getFieldID(String name) throws IOException, NoSuchFieldException {
         ensureOpen();
         if (name == null)
             throw new NullPointerException("Null field name");
-        int[][] arr = this.fields.getLocationsOf(name);
-        if (arr.length == 0)
+        Integer id = this.fieldIDs.get(name);
+        if (id == null)
             throw new NoSuchFieldException(name);
-        return arr[0][1]; // Array is [[col, row], [col, row], ...]
+        return id.intValue();
     }
 
     protected boolean isAccessible(int fieldID) throws IOException {
-        return (((Integer) this.fields.get(2, fieldID)).intValue() & Modifier.PUBLIC) != 0;
+        Integer mod = (Integer) readCell(2, fieldID);
+        return mod != null && (mod.intValue() & Modifier.PUBLIC) != 0;
     }
 
     public Object get(String name) throws IOException, NoSuchFieldException, SecurityException {
@@ -334,6 +837,28 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
         return this.getField(fieldID);
     }
 
+    /** @see #getFieldID(String) */
+    public Object get(int fieldID) throws IOException, SecurityException {
+        ensureOpen();
+        if (fieldID >= rowCount() || fieldID <= 0)
+            throw new IllegalArgumentException("Illegal Field ID: " + fieldID);
+        if (!isAccessible(fieldID))
+            throw new SecurityException("Inaccessible field: " + readCell(0, fieldID));
+        return this.getField(fieldID);
+    }
+
+    /** @see #getFieldID(String) */
+    public void set(int fieldID, Object obj) throws IOException, SecurityException {
+        ensureOpen();
+        if (!(obj instanceof MemorySerializable))
+            throw new ClassCastException("Incompatible Object provided");
+        if (fieldID >= rowCount() || fieldID <= 0)
+            throw new IllegalArgumentException("Illegal Field ID: " + fieldID);
+        if (!isAccessible(fieldID))
+            throw new SecurityException("Inaccessible Field: " + readCell(0, fieldID));
+        this.setField((MemorySerializable) obj, fieldID);
+    }
+
     public void set(String name, Object obj) throws IOException, NoSuchFieldException, SecurityException {
         if (name == null)
             throw new NullPointerException("Null Name");
@@ -362,7 +887,10 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
 
     protected final int getModifiers(int fieldID) throws IOException {
         ensureOpen();
-        return ((Integer) this.fields.get(2, fieldID)).intValue();
+        Integer mod = (Integer) readCell(2, fieldID);
+        if (mod == null)
+            throw new IllegalArgumentException("Illegal Field ID: " + fieldID);
+        return mod.intValue();
     }
 
     public OffHeapMemoryStorage getStorage() {
@@ -377,7 +905,7 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
     }
 
     public int getFieldCount() {
-        return this.fields.getRowCount() - 1; // Exclude sentinel row
+        return rowCount() - 1; // Exclude sentinel row
     }
 
     public final Source getSource() {
@@ -434,8 +962,8 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
          * An getter that return the offset of the field
          * 
          * @return Returns the Storage offset of the field in the storage
-         * @see MemoryObject#toStreamOffset(long)
-         * @see MemoryObject#toStorageOffset(long)
+         * @see MemoryObject#toStreamOffset(long, int)
+         * @see MemoryObject#toStorageOffset(long, int)
          */
         public long getOffset() {
             return this.offset;
@@ -454,10 +982,20 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
     }
 
     public final FieldMetadata[] getFieldMetadata() {
-        int len = this.fields.getRowCount();
-        FieldMetadata[] arr = new FieldMetadata[len - 1];
-        for (int i = 1; i < len; i++) {
-            arr[i - 1] = createMetadata(this.fields.get(0, i), this.fields.get(2, i), this.fields.get(3, i), i);
+        Object[] names, mods, offsets;
+        for (;;) { // Copies the columns, retrying while a writer changes them
+            long s = beginRead();
+            Object[][] t = table();
+            names = t[0].clone();
+            mods = t[2].clone();
+            offsets = t[3].clone();
+            if (validateRead(s) && names.length == mods.length && names.length == offsets.length)
+                break;
+        }
+        FieldMetadata[] arr = new FieldMetadata[names.length - 1];
+        for (int i = 1; i < names.length; i++) {
+            arr[i - 1] = createMetadata(names[i], mods[i] == null ? Integer.valueOf(0) : mods[i],
+                    offsets[i] == null ? Long.valueOf(0L) : offsets[i], i);
         }
         return arr;
     }
@@ -471,12 +1009,149 @@ public abstract class MemoryObject implements Closeable, MemorySerializable {
         return new FieldMetadata((String) name, ((Integer) mod).intValue(), ((Long) offset).longValue(), id);
     }
 
+    /**
+     * Converts an offset in the storage to an offset in the stream written by
+     * {@link MemoryOutputStream#writeObj(MemorySerializable)}, assuming an
+     * {@link MemoryOutputStream#ID_SIZE 8-byte} type ID
+     * ({@link MemoryOutputStream#FORMAT_V1})
+     * 
+     * @deprecated Type IDs of {@link MemoryOutputStream#FORMAT_V2} take 1 to 10
+     *             bytes, and subclasses may write data before the storage, use
+     *             {@link #toStreamOffset(long, int)} instead
+     */
+    @Deprecated
     public static final long toStreamOffset(long offsetInStorage) {
-        return offsetInStorage + 8;
+        return toStreamOffset(offsetInStorage, (int) MemoryOutputStream.ID_SIZE);
     }
 
+    /**
+     * The inverse of {@link #toStreamOffset(long)}
+     * 
+     * @deprecated Use {@link #toStorageOffset(long, int)} instead
+     */
+    @Deprecated
     public static final long toStorageOffset(long offsetInStream) {
-        return offsetInStream - 8;
+        return toStorageOffset(offsetInStream, (int) MemoryOutputStream.ID_SIZE);
+    }
+
+    /**
+     * Converts an offset in the storage to an offset in the stream written by
+     * {@link MemoryOutputStream#writeObj(MemorySerializable)}. The stream holds
+     * the type ID of the object, then whatever the subclass writes before
+     * calling {@link #writeObj(MemoryOutputStream)}, then the storage as is.
+     * 
+     * @param prefixLength The amount of bytes before the storage: the size of
+     *                     the type ID in the format of the stream (see
+     *                     {@link MemoryOutputStream#idLength(long, int)}), plus
+     *                     the size of the data written by the subclass
+     */
+    public static final long toStreamOffset(long offsetInStorage, int prefixLength) {
+        if (prefixLength < 1)
+            throw new IllegalArgumentException("Illegal prefix length: " + prefixLength);
+        return offsetInStorage + prefixLength;
+    }
+
+    /** The inverse of {@link #toStreamOffset(long, int)} */
+    public static final long toStorageOffset(long offsetInStream, int prefixLength) {
+        if (prefixLength < 1)
+            throw new IllegalArgumentException("Illegal prefix length: " + prefixLength);
+        return offsetInStream - prefixLength;
+    }
+
+    /**
+     * A batch of field updates, created by {@link MemoryObject#edit()}.
+     * <p>
+     * Every update is validated when it is added, and nothing is applied until
+     * {@link #commit()}, which lays out and flushes the object once. Setting the
+     * same field twice keeps the last value.
+     */
+    public static final class Editor {
+        private final MemoryObject obj;
+        private int[] ids = new int[8];
+        private MemorySerializable[] values = new MemorySerializable[8];
+        private int size = 0;
+        private boolean done = false;
+
+        private Editor(MemoryObject obj) {
+            this.obj = obj;
+        }
+
+        public Editor set(String name, Object value) throws IOException, NoSuchFieldException, SecurityException {
+            if (name == null)
+                throw new NullPointerException("Null Name");
+            return this.set(obj.getFieldID(name), value);
+        }
+
+        public Editor set(int fieldID, Object value) throws IOException, SecurityException {
+            if (done)
+                throw new IllegalStateException("Already committed");
+            obj.ensureOpen();
+            obj.ensureWritable();
+            if (!(value instanceof MemorySerializable))
+                throw new ClassCastException("Incompatible Object provided");
+            if (fieldID >= obj.rowCount() || fieldID <= 0)
+                throw new IllegalArgumentException("Illegal Field ID: " + fieldID);
+            if (!obj.isAccessible(fieldID))
+                throw new SecurityException("Inaccessible Field: " + obj.readCell(0, fieldID));
+            if ((obj.getModifiers(fieldID) & Modifier.FINAL) != 0)
+                throw new IllegalArgumentException("Cannot modify field, because it is final");
+            if (size == ids.length) {
+                ids = java.util.Arrays.copyOf(ids, size * 2);
+                values = java.util.Arrays.copyOf(values, size * 2);
+            }
+            ids[size] = fieldID;
+            values[size++] = (MemorySerializable) value;
+            return this;
+        }
+
+        /** @return The amount of updates in this batch */
+        public int size() {
+            return this.size;
+        }
+
+        /**
+         * Applies every update, then flushes the object once. If the flush fails,
+         * the previous values are put back and flushed again, so the object is
+         * left as it was before the batch.
+         *
+         * @throws IOException If an I/O Operation went wrong
+         */
+        public void commit() throws IOException {
+            if (done)
+                throw new IllegalStateException("Already committed");
+            obj.ensureOpen();
+            this.done = true;
+            if (size == 0)
+                return;
+            obj.lockWrite();
+            try {
+                obj.load(); // Values must not be unloaded once the storage is rewritten
+                MemorySerializable[] old = new MemorySerializable[size];
+                for (int i = 0; i < size; i++)
+                    old[i] = (MemorySerializable) obj.fields.get(1, ids[i]);
+                try {
+                    for (int i = 0; i < size; i++)
+                        obj.putValue(values[i], ids[i]);
+                    obj.pullMem();
+                } catch (IOException | RuntimeException e) {
+                    for (int i = size - 1; i >= 0; i--) // The first value of a repeated field is the original
+                        obj.putValue(old[i], ids[i]);
+                    try {
+                        obj.pullMem();
+                    } catch (IOException | RuntimeException e2) {
+                        e.addSuppressed(e2);
+                    }
+                    throw e;
+                }
+            } finally {
+                obj.unlockWrite();
+            }
+        }
+
+        /** Discards every update */
+        public void abort() {
+            this.done = true;
+        }
     }
 
     protected static final class FieldData {
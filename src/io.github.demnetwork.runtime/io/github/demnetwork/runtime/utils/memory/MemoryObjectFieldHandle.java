@@ -0,0 +1,471 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryOutputStream.BIG_ENDIAN;
+import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage.UNSAFE;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import io.github.demnetwork.runtime.utils.memory.serial.DelegatedMemoryOutputStream;
+import io.github.demnetwork.runtime.utils.memory.serial.MemorySerializable;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.BooleanWrapper;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.CharacterWrapper;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.DoubleWrapper;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.IntWrapper;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.LongWrapper;
+
+/**
+ * A pre-resolved, typed reference to a field of a {@link MemoryObject}, in the
+ * spirit of {@link java.lang.invoke.VarHandle VarHandle}.
+ * <p>
+ * The field is resolved once, when the handle is created. Afterwards, objects
+ * of the same class are accessed without any name lookup. Objects of another
+ * class, or with another layout, are still supported, but are resolved on
+ * every access. The modifiers are always those of the accessed object, since
+ * a class such as {@link SyntheticMemoryStruct} is shared by many layouts.
+ * <p>
+ * The primitive accessors (<code>getInt</code>, <code>setLong</code>, ...)
+ * read and write the encoded value in place, in the storage of the object, so
+ * they never allocate a wrapper nor re-serialize the object. The first write to
+ * a field that does not hold a value of the handle type yet goes through
+ * {@link MemoryObject#set(int, Object)}.
+ * <p>
+ * Writes take the write lock of the object, so they never interleave with
+ * other writes nor with a re-serialization. Reads of values that only live in
+ * the storage are optimistic: they are retried if a write happened meanwhile.
+ *
+ * @param <T> The type of the field values
+ */
+public final class MemoryObjectFieldHandle<T extends MemorySerializable> {
+    private final Class<? extends MemoryObject> owner;
+    private final String name;
+    private final Class<T> type;
+    private final int fieldID;
+    /** Encoded type ID that precedes the values, empty for non-primitive types */
+    private final byte[] prefix;
+    /** Size of the encoded values, or -1 for non-primitive types */
+    private final int width;
+
+    private MemoryObjectFieldHandle(Class<? extends MemoryObject> owner, String name, Class<T> type, int fieldID)
+            throws IOException {
+        this.owner = owner;
+        this.name = name;
+        this.type = type;
+        this.fieldID = fieldID;
+        MemorySerializable sample = sample(type);
+        if (sample == null) {
+            this.prefix = new byte[0];
+            this.width = -1;
+        } else {
+            this.width = type == BooleanWrapper.class ? 1
+                    : type == CharacterWrapper.class ? 2 : type == IntWrapper.class ? 4 : 8;
+            ByteArrayOutputStream bo = new ByteArrayOutputStream(16);
+            try (DelegatedMemoryOutputStream os = new DelegatedMemoryOutputStream(bo)) {
+                os.writeObj(sample);
+            }
+            byte[] b = bo.toByteArray();
+            this.prefix = Arrays.copyOf(b, b.length - width);
+        }
+    }
+
+    private static MemorySerializable sample(Class<?> type) {
+        if (type == IntWrapper.class)
+            return new IntWrapper(0);
+        if (type == LongWrapper.class)
+            return new LongWrapper(0L);
+        if (type == DoubleWrapper.class)
+            return new DoubleWrapper(0.0);
+        if (type == CharacterWrapper.class)
+            return new CharacterWrapper('\u0000');
+        if (type == BooleanWrapper.class)
+            return BooleanWrapper.FALSE;
+        return null;
+    }
+
+    /**
+     * Creates a handle for a field of the object. The handle can be used with
+     * every object of the same class.
+     *
+     * @param obj  An object that has the field
+     * @param name The name of the field
+     * @param type The type of the field values
+     * @throws NoSuchFieldException If the object has no such field
+     * @throws SecurityException    If the field is not public
+     * @throws IOException          If the object was closed
+     */
+    public static <T extends MemorySerializable> MemoryObjectFieldHandle<T> of(MemoryObject obj, String name,
+            Class<T> type) throws IOException, NoSuchFieldException {
+        if (obj == null || type == null)
+            throw new NullPointerException();
+        int id = obj.getFieldID(name);
+        if (!obj.isAccessible(id))
+            throw new SecurityException("Inaccessible field: " + name);
+        return new MemoryObjectFieldHandle<>(obj.getClass(), name, type, id);
+    }
+
+    /** @return The ID of the field in <code>obj</code> */
+    private int resolve(MemoryObject obj, boolean write) throws IOException {
+        obj.ensureOpen();
+        if (write)
+            obj.ensureWritable();
+        int id = this.fieldID;
+        Object[] names = obj.table()[0];
+        if (obj.getClass() != this.owner || id >= names.length || !this.name.equals(names[id])) {
+            try {
+                id = obj.getFieldID(this.name); // Another class or layout
+            } catch (NoSuchFieldException e) {
+                throw new IllegalArgumentException("No field \"" + this.name + "\" in " + obj.getClass().getName(),
+                        e);
+            }
+        }
+        // Objects of the same class may still declare the field with other modifiers
+        if (!obj.isAccessible(id))
+            throw new SecurityException("Inaccessible field: " + this.name);
+        if (write && (obj.getModifiers(id) & Modifier.FINAL) != 0)
+            throw new IllegalArgumentException("Cannot modify field, because it is final");
+        return id;
+    }
+
+    /**
+     * @return The address of the encoded value in the storage, or 0 if the
+     *         storage does not hold a value of the handle type at the field
+     *         offset
+     */
+    private long address(MemoryObject obj, int id) {
+        Object off0 = obj.table()[3][id];
+        if (off0 == null)
+            return 0L; // Never written to the storage
+        long off = ((Long) off0).longValue();
+        OffHeapMemoryStorage storage = obj.storage;
+        if (off < 0 || off + prefix.length + width > storage.size)
+            return 0L;
+        long addr = storage.baseAddr + off;
+        for (int i = 0; i < prefix.length; i++) {
+            if (UNSAFE.getByte(addr + i) != prefix[i])
+                return 0L;
+        }
+        return addr + prefix.length;
+    }
+
+    /**
+     * @return The current value of the field, decoding it if needed, but never
+     *         the unloaded placeholder
+     */
+    private Object value(MemoryObject obj, int id) throws IOException {
+        Object v = obj.table()[1][id];
+        if (v == MemoryObject.UNLOADED) {
+            obj.load(id);
+            v = obj.table()[1][id];
+        }
+        return v;
+    }
+
+    private void checkType(Class<?> expected) {
+        if (this.type != expected)
+            throw new UnsupportedOperationException("Field handle of type " + this.type.getName());
+    }
+
+    /**
+     * Reads the current value. Values that only live in the storage are read in
+     * place. Concurrent writers are detected through the sequence of the write
+     * lock, and the read is then retried.
+     *
+     * @return The value for integral types, or the raw bits for doubles
+     */
+    private long bits(MemoryObject obj, int id) throws IOException {
+        for (;;) {
+            long s = obj.beginRead();
+            Object v = obj.table()[1][id];
+            if (v != MemoryObject.UNLOADED)
+                return bitsOf(v);
+            long addr = address(obj, id);
+            if (addr == 0L)
+                break;
+            long r;
+            switch (width) {
+                case 1:
+                    r = UNSAFE.getByte(addr) != 0 ? 1L : 0L;
+                    break;
+                case 2:
+                    char c = UNSAFE.getChar(addr);
+                    r = BIG_ENDIAN ? c : Character.reverseBytes(c);
+                    break;
+                case 4:
+                    int i = UNSAFE.getInt(addr);
+                    r = BIG_ENDIAN ? i : Integer.reverseBytes(i);
+                    break;
+                default:
+                    long l = UNSAFE.getLong(addr);
+                    r = BIG_ENDIAN ? l : Long.reverseBytes(l);
+                    break;
+            }
+            if (obj.validateRead(s))
+                return r;
+        }
+        return bitsOf(value(obj, id));
+    }
+
+    private long bitsOf(Object v) {
+        switch (width) {
+            case 1:
+                return ((BooleanWrapper) v).booleanValue() ? 1L : 0L;
+            case 2:
+                return ((CharacterWrapper) v).charValue();
+            case 4:
+                return ((IntWrapper) v).intValue();
+            default:
+                return this.type == DoubleWrapper.class ? Double.doubleToRawLongBits(((DoubleWrapper) v).doubleValue())
+                        : ((LongWrapper) v).longValue();
+        }
+    }
+
+    /**
+     * Must be called while holding the write lock
+     *
+     * @return The address to write the value at, or 0 if the value must be set
+     *         through the object
+     */
+    private long writeAddress(MemoryObject obj, int id, Class<?> expected) {
+        checkType(expected);
+        Object[] values = obj.table()[1];
+        Object v = values[id];
+        if (v != MemoryObject.UNLOADED && !expected.isInstance(v))
+            return 0L; // The layout changes, so it must be re-serialized
+        long addr = address(obj, id);
+        if (addr != 0L && v != MemoryObject.UNLOADED) {
+            values[id] = MemoryObject.UNLOADED; // The storage now holds the only copy
+            obj.unloaded++;
+        }
+        return addr;
+    }
+
+    public T get(MemoryObject obj) throws IOException {
+        int id = resolve(obj, false);
+        return this.type.cast(value(obj, id));
+    }
+
+    public void set(MemoryObject obj, T value) throws IOException {
+        if (value != null && !this.type.isInstance(value))
+            throw new ClassCastException("Incompatible Object provided");
+        obj.setField(value, resolve(obj, true));
+    }
+
+    public int getInt(MemoryObject obj) throws IOException {
+        checkType(IntWrapper.class);
+        return (int) bits(obj, resolve(obj, false));
+    }
+
+    public void setInt(MemoryObject obj, int v) throws IOException {
+        int id = resolve(obj, true);
+        obj.lockWrite();
+        try {
+            putInt(obj, id, v);
+        } finally {
+            obj.unlockWrite();
+        }
+    }
+
+    private void putInt(MemoryObject obj, int id, int v) throws IOException {
+        long addr = writeAddress(obj, id, IntWrapper.class);
+        if (addr != 0L) {
+            UNSAFE.putInt(addr, BIG_ENDIAN ? v : Integer.reverseBytes(v));
+            return;
+        }
+        obj.setField(new IntWrapper(v), id);
+    }
+
+    /**
+     * Atomically sets the field to <code>update</code> if it holds
+     * <code>expect</code>
+     *
+     * @return Whether the field was updated
+     */
+    public boolean compareAndSetInt(MemoryObject obj, int expect, int update) throws IOException {
+        int id = resolve(obj, true);
+        obj.lockWrite();
+        try {
+            if (getInt(obj) != expect)
+                return false;
+            putInt(obj, id, update);
+            return true;
+        } finally {
+            obj.unlockWrite();
+        }
+    }
+
+    /**
+     * Atomically adds <code>delta</code> to the field
+     *
+     * @return The previous value
+     */
+    public int getAndAddInt(MemoryObject obj, int delta) throws IOException {
+        int id = resolve(obj, true);
+        obj.lockWrite();
+        try {
+            int v = getInt(obj);
+            putInt(obj, id, v + delta);
+            return v;
+        } finally {
+            obj.unlockWrite();
+        }
+    }
+
+    public long getLong(MemoryObject obj) throws IOException {
+        checkType(LongWrapper.class);
+        return bits(obj, resolve(obj, false));
+    }
+
+    public void setLong(MemoryObject obj, long v) throws IOException {
+        int id = resolve(obj, true);
+        obj.lockWrite();
+        try {
+            putLong(obj, id, v);
+        } finally {
+            obj.unlockWrite();
+        }
+    }
+
+    private void putLong(MemoryObject obj, int id, long v) throws IOException {
+        long addr = writeAddress(obj, id, LongWrapper.class);
+        if (addr != 0L) {
+            UNSAFE.putLong(addr, BIG_ENDIAN ? v : Long.reverseBytes(v));
+            return;
+        }
+        obj.setField(new LongWrapper(v), id);
+    }
+
+    /** @see #compareAndSetInt(MemoryObject, int, int) */
+    public boolean compareAndSetLong(MemoryObject obj, long expect, long update) throws IOException {
+        int id = resolve(obj, true);
+        obj.lockWrite();
+        try {
+            if (getLong(obj) != expect)
+                return false;
+            putLong(obj, id, update);
+            return true;
+        } finally {
+            obj.unlockWrite();
+        }
+    }
+
+    /** @see #getAndAddInt(MemoryObject, int) */
+    public long getAndAddLong(MemoryObject obj, long delta) throws IOException {
+        int id = resolve(obj, true);
+        obj.lockWrite();
+        try {
+            long v = getLong(obj);
+            putLong(obj, id, v + delta);
+            return v;
+        } finally {
+            obj.unlockWrite();
+        }
+    }
+
+    public double getDouble(MemoryObject obj) throws IOException {
+        checkType(DoubleWrapper.class);
+        return Double.longBitsToDouble(bits(obj, resolve(obj, false)));
+    }
+
+    public void setDouble(MemoryObject obj, double v) throws IOException {
+        int id = resolve(obj, true);
+        obj.lockWrite();
+        try {
+            long addr = writeAddress(obj, id, DoubleWrapper.class);
+            if (addr != 0L) {
+                long bits = Double.doubleToRawLongBits(v);
+                UNSAFE.putLong(addr, BIG_ENDIAN ? bits : Long.reverseBytes(bits));
+                return;
+            }
+            obj.setField(new DoubleWrapper(v), id);
+        } finally {
+            obj.unlockWrite();
+        }
+    }
+
+    public char getChar(MemoryObject obj) throws IOException {
+        checkType(CharacterWrapper.class);
+        return (char) bits(obj, resolve(obj, false));
+    }
+
+    public void setChar(MemoryObject obj, char v) throws IOException {
+        int id = resolve(obj, true);
+        obj.lockWrite();
+        try {
+            long addr = writeAddress(obj, id, CharacterWrapper.class);
+            if (addr != 0L) {
+                UNSAFE.putChar(addr, BIG_ENDIAN ? v : Character.reverseBytes(v));
+                return;
+            }
+            obj.setField(new CharacterWrapper(v), id);
+        } finally {
+            obj.unlockWrite();
+        }
+    }
+
+    public boolean getBoolean(MemoryObject obj) throws IOException {
+        checkType(BooleanWrapper.class);
+        return bits(obj, resolve(obj, false)) != 0L;
+    }
+
+    public void setBoolean(MemoryObject obj, boolean v) throws IOException {
+        int id = resolve(obj, true);
+        obj.lockWrite();
+        try {
+            long addr = writeAddress(obj, id, BooleanWrapper.class);
+            if (addr != 0L) {
+                UNSAFE.putByte(addr, (byte) (v ? 1 : 0));
+                return;
+            }
+            obj.setField(PrimitiveWrappers.of(v), id);
+        } finally {
+            obj.unlockWrite();
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public Class<T> getType() {
+        return this.type;
+    }
+
+    /** @return The ID of the field in objects of the class the handle was made for */
+    public int getFieldID() {
+        return this.fieldID;
+    }
+
+    public Class<? extends MemoryObject> getDeclaringClass() {
+        return this.owner;
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryObjectFieldHandle{" + this.owner.getName() + "." + this.name + " #" + this.fieldID + " : "
+                + this.type.getName() + "}";
+    }
+}
@@ -53,6 +53,11 @@ public class MemoryObjectImpl extends MemoryObject {
         super(storage, size, interpretData);
     }
 
+    /** @see MemoryObject#MemoryObject(OffHeapMemoryStorage, long, boolean, boolean) */
+    public MemoryObjectImpl(OffHeapMemoryStorage storage, long size, boolean interpretData, boolean lazy) {
+        super(storage, size, interpretData, lazy);
+    }
+
     @Override
     protected void ensureOpen() throws IOException {
         if (closed)
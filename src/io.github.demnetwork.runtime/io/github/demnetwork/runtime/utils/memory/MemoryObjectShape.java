@@ -0,0 +1,190 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.WeakHashMap;
+import io.github.demnetwork.runtime.utils.memory.serial.MemoryInputStream;
+import io.github.demnetwork.runtime.utils.memory.serial.MemoryOutputStream;
+import io.github.demnetwork.runtime.utils.memory.serial.MemorySerializable;
+import io.github.demnetwork.runtime.utils.memory.serial.StringWrapper;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.IntWrapper;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.LongWrapper;
+
+/**
+ * An interned layout descriptor, holding the names and modifiers of the fields
+ * of a {@link MemoryObject}.
+ * <p>
+ * Objects that use shapes store the shape once, in front of the values,
+ * instead of the name, modifiers and offset of every field. The ID is derived
+ * from the contents of the shape only, so the same shape gets the same ID in
+ * every process. Different shapes may still share an ID, so shapes are
+ * interned, and told apart, by their contents.
+ * <p>
+ * Since the storage holds the shape itself, it can be interpreted in any
+ * process, including one that never interned the shape. Reading the shape from
+ * a {@link MemoryInputStream} interns it, so the objects of a shape still share
+ * one instance. Shapes are only weakly held by the intern table, so the
+ * intermediate shapes of an object whose fields are still being added are
+ * collected once no object uses them.
+ */
+public final class MemoryObjectShape implements MemorySerializable {
+    /** Both the keys and the values are weak, the key of an entry is its value */
+    private static final WeakHashMap<MemoryObjectShape, WeakReference<MemoryObjectShape>> SHAPES = new WeakHashMap<>();
+    private final long id;
+    private final String[] names;
+    private final int[] mods;
+
+    private MemoryObjectShape(long id, String[] names, int[] mods) {
+        this.id = id;
+        this.names = names;
+        this.mods = mods;
+    }
+
+    /**
+     * Returns the interned shape with the fields
+     * 
+     * @param names The names of the fields, in field ID order
+     * @param mods  The modifiers of the fields
+     */
+    public static MemoryObjectShape of(String[] names, int[] mods) {
+        if (names == null || mods == null)
+            throw new NullPointerException();
+        if (names.length != mods.length)
+            throw new IllegalArgumentException("Length mismatch");
+        String[] n = new String[names.length];
+        for (int i = 0; i < n.length; i++) {
+            if (names[i] == null)
+                throw new NullPointerException("Null field name");
+            n[i] = names[i].intern(); // Shared by every object of the shape
+        }
+        return intern(n, mods.clone());
+    }
+
+    private static MemoryObjectShape intern(String[] names, int[] mods) {
+        MemoryObjectShape s = new MemoryObjectShape(fingerprint(names, mods), names, mods);
+        synchronized (SHAPES) {
+            WeakReference<MemoryObjectShape> ref = SHAPES.get(s);
+            MemoryObjectShape prev = ref == null ? null : ref.get();
+            if (prev != null)
+                return prev;
+            SHAPES.put(s, new WeakReference<>(s));
+            return s;
+        }
+    }
+
+    private static long fingerprint(String[] names, int[] mods) {
+        long h = 0xcbf29ce484222325L; // FNV-1a
+        h = (h ^ names.length) * 0x100000001b3L;
+        for (int i = 0; i < names.length; i++) {
+            String n = names[i];
+            h = (h ^ n.length()) * 0x100000001b3L;
+            for (int j = 0; j < n.length(); j++)
+                h = (h ^ n.charAt(j)) * 0x100000001b3L;
+            h = (h ^ mods[i]) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * @return The fingerprint of the names and modifiers, the same in every
+     *         process, but not unique
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    public int getFieldCount() {
+        return this.names.length;
+    }
+
+    /** @param index The index of the field, that is its field ID minus one */
+    public String getName(int index) {
+        return this.names[index];
+    }
+
+    /** @param index The index of the field, that is its field ID minus one */
+    public int getModifiers(int index) {
+        return this.mods[index];
+    }
+
+    @Override
+    public void writeObj(MemoryOutputStream mos) throws IOException {
+        mos.writeObj(new LongWrapper(this.id));
+        mos.writeObj(new IntWrapper(this.names.length));
+        for (int i = 0; i < this.names.length; i++) {
+            mos.writeObj(new StringWrapper(this.names[i]));
+            mos.writeInt(this.mods[i]);
+        }
+    }
+
+    /**
+     * Reads the shape, and interns it
+     * 
+     * @return The interned shape, not this instance
+     */
+    @Override
+    public MemoryObjectShape readObj(MemoryInputStream mis) throws IOException {
+        try {
+            long id = ((LongWrapper) mis.readObj()).longValue();
+            int len = ((IntWrapper) mis.readObj()).intValue();
+            if (len < 0)
+                throw new IOException("Corrupt shape");
+            String[] n = new String[len];
+            int[] m = new int[len];
+            for (int i = 0; i < len; i++) {
+                n[i] = ((StringWrapper) mis.readObj()).getValue().intern();
+                m[i] = mis.readInt();
+            }
+            if (fingerprint(n, m) != id)
+                throw new IOException("Corrupt shape, the ID does not match the fields");
+            return intern(n, m);
+        } catch (InstantiationException | ClassCastException e) {
+            throw new IOException("Unable to read shape", e);
+        }
+    }
+
+    /** Shapes are equal when they have the same fields, in the same order */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof MemoryObjectShape))
+            return false;
+        MemoryObjectShape s = (MemoryObjectShape) o;
+        return this.id == s.id && Arrays.equals(this.names, s.names) && Arrays.equals(this.mods, s.mods);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.id);
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryObjectShape{id=" + Long.toHexString(this.id) + ", fields=" + Arrays.toString(this.names) + "}";
+    }
+}
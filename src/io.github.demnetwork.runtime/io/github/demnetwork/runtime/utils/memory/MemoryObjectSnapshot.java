@@ -0,0 +1,171 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage.UNSAFE;
+import java.io.IOException;
+import io.github.demnetwork.runtime.utils.memory.serial.MemoryOutputStream;
+
+/**
+ * A read-only view of the committed state of a {@link MemoryObject}, as
+ * returned by {@link MemoryObject#snapshot()}.
+ * <p>
+ * A snapshot reads a copy of the storage image of its source, which is shared
+ * with the other snapshots of the same state. The copy is released once every
+ * snapshot sharing it is closed and the source has committed a newer state.
+ * Snapshots may be read by several threads at once.
+ */
+public final class MemoryObjectSnapshot extends MemoryObject {
+    private volatile boolean closed = false;
+    private final Image image;
+    private final boolean shaped;
+
+    private MemoryObjectSnapshot(Image image, boolean shaped) {
+        super(image.storage, -1L, true, true);
+        this.image = image;
+        this.shaped = shaped;
+    }
+
+    private MemoryObjectSnapshot(MemoryObjectSnapshot template, Image image) {
+        super(template);
+        this.image = image;
+        this.shaped = template.shaped;
+    }
+
+    /**
+     * Creates a snapshot over an image that was retained for it. Only the first
+     * snapshot of an image interprets it, the others copy its layout.
+     */
+    static MemoryObjectSnapshot open(Image image, boolean shaped) {
+        try {
+            MemoryObjectSnapshot t = image.template;
+            if (t != null)
+                return new MemoryObjectSnapshot(t, image);
+            MemoryObjectSnapshot s = new MemoryObjectSnapshot(image, shaped);
+            image.template = s;
+            return s;
+        } catch (RuntimeException e) {
+            image.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The version of the state of the source, snapshots of the same
+     *         state have the same version
+     */
+    public long getVersion() {
+        return this.image == null ? -1L : this.image.version;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    /** Uses the layout of the source, so the image is written as is */
+    @Override
+    protected boolean usesShapes() {
+        return this.shaped;
+    }
+
+    /** Writes the image as committed, there is nothing to flush */
+    @Override
+    public void writeObj(MemoryOutputStream mos) throws IOException {
+        ensureOpen();
+        pushMem(mos);
+    }
+
+    @Override
+    protected void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("Closed MemoryObjectSnapshot");
+        if (super.storage.isClosed())
+            throw new IOException("Closed Storage");
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        this.closed = true;
+        if (this.image != null)
+            this.image.release();
+    }
+
+    @Override
+    protected void setupFields(OffHeapMemoryStorage storage) throws NoSuchFieldException {
+        super.setupFields(storage);
+        this.closed = false;
+    }
+
+    /** A copy of a committed image, with the count of its holders */
+    static final class Image {
+        final OffHeapMemoryStorage storage;
+        final long version;
+        /** The first snapshot of this image, whose layout the others copy */
+        volatile MemoryObjectSnapshot template = null;
+        private volatile int refs = 1;
+        private static final long REFS_OFFSET;
+        static {
+            try {
+                REFS_OFFSET = UNSAFE.objectFieldOffset(Image.class.getDeclaredField("refs"));
+            } catch (Exception e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        Image(OffHeapMemoryStorage storage, long version) {
+            this.storage = storage;
+            this.version = version;
+        }
+
+        /** @return <code>false</code> if the image was already released */
+        boolean retain() {
+            for (;;) {
+                int r = this.refs;
+                if (r <= 0)
+                    return false;
+                if (UNSAFE.compareAndSwapInt(this, REFS_OFFSET, r, r + 1))
+                    return true;
+            }
+        }
+
+        void release() {
+            for (;;) {
+                int r = this.refs;
+                if (UNSAFE.compareAndSwapInt(this, REFS_OFFSET, r, r - 1)) {
+                    if (r == 1)
+                        this.storage.close();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -27,6 +27,7 @@ import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.*;
 import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage.UNSAFE;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Objects;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -61,6 +62,39 @@ import io.github.demnetwork.runtime.utils.memory.serial.MemorySerializable;
 public class MemoryStruct extends MemoryObject {
     protected volatile boolean closed = false;
     public final boolean isSynthetic;
+    private static final long IS_SYNTHETIC_OFFSET;
+    static {
+        try {
+            IS_SYNTHETIC_OFFSET = UNSAFE.objectFieldOffset(MemoryStruct.class.getDeclaredField("isSynthetic"));
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    /** Per-class cache of the Java fields backing the memory fields */
+    private static final ClassValue<HashMap<String, JavaField>> JAVA_FIELDS = new ClassValue<>() {
+
+        @Override
+        protected HashMap<String, JavaField> computeValue(Class<?> type) {
+            Field[] fs = type.getDeclaredFields();
+            HashMap<String, JavaField> map = new HashMap<>(fs.length);
+            for (Field f : fs) {
+                if ((f.getModifiers() & Modifier.STATIC) == 0)
+                    map.put(f.getName(), new JavaField(UNSAFE.objectFieldOffset(f), f.getType()));
+            }
+            return map;
+        }
+
+    };
+
+    private static final class JavaField {
+        private final long offset;
+        private final Class<?> type;
+
+        private JavaField(long offset, Class<?> type) {
+            this.offset = offset;
+            this.type = type;
+        }
+    }
 
     protected MemoryStruct(OffHeapMemoryStorage storage) {
         this(storage, -1L);
@@ -122,6 +156,12 @@ public class MemoryStruct extends MemoryObject {
     public static abstract @interface MemoryStructField {
     }
 
+    /** Structs of the same class share their fields, so they use shapes */
+    @Override
+    protected boolean usesShapes() {
+        return true;
+    }
+
     @Override
     protected void ensureOpen() throws IOException {
         if (closed)
@@ -145,42 +185,40 @@ public class MemoryStruct extends MemoryObject {
     protected final void flushFields() throws IOException {
         MemoryObjectFieldInspector mofi = new MemoryObjectFieldInspector(this);
         MemoryObjectField[] arr = mofi.getFields();
-        Class<? extends MemoryStruct> cls = this.getClass();
-        for (int i = 0; i < arr.length; i++) {
-            MemoryObjectField f0 = arr[i];
-            try {
-                Field f1 = cls.getDeclaredField(f0.getName());
-                f0.forceSet((MemorySerializable) UNSAFE.getObject(this, UNSAFE.objectFieldOffset(f1)), false);
-            } catch (ReflectiveOperationException e) {
-                if (BuildData.CURRENT.getDebugStatus()) {
-                    System.out.println("[MemoryStruct] Field not found in class");
-                    e.printStackTrace(System.out);
+        HashMap<String, JavaField> jfs = JAVA_FIELDS.get(this.getClass());
+        lockWrite(); // The fields and the storage are updated as one write
+        try {
+            for (int i = 0; i < arr.length; i++) {
+                MemoryObjectField f0 = arr[i];
+                JavaField f1 = jfs.get(f0.getName());
+                if (f1 != null) {
+                    f0.forceSet((MemorySerializable) UNSAFE.getObject(this, f1.offset), false);
+                } else if (BuildData.CURRENT.getDebugStatus()) {
+                    System.out.println("[MemoryStruct] Field not found in class: " + f0.getName());
                 }
+                f0.close();
             }
-            f0.close();
+            super.pullMem();
+        } finally {
+            unlockWrite();
         }
-        super.pullMem();
     }
 
     protected final void loadFields() throws IOException {
         MemoryObjectFieldInspector mofi = new MemoryObjectFieldInspector(this);
         MemoryObjectField[] arr = mofi.getFields();
-        Class<? extends MemoryStruct> cls = this.getClass();
+        HashMap<String, JavaField> jfs = JAVA_FIELDS.get(this.getClass());
         for (int i = 0; i < arr.length; i++) {
             MemoryObjectField f0 = arr[i];
-            try {
-                MemorySerializable obj = f0.get();
-                Field f1 = cls.getDeclaredField(f0.getName());
-                if (obj == null || f1.getType().isAssignableFrom(obj.getClass())) {
-                    UNSAFE.putObject(this, UNSAFE.objectFieldOffset(f1), obj);
-                } else if (BuildData.CURRENT.getDebugStatus()) {
-                    System.out.println("Type does not match. " + obj.getClass() + " cannot cast to" + f1.getType());
-                }
-            } catch (ReflectiveOperationException e) {
-                if (BuildData.CURRENT.getDebugStatus()) {
-                    System.out.println("[MemoryStruct] Field not found in class");
-                    e.printStackTrace(System.out);
-                }
+            MemorySerializable obj = f0.get();
+            JavaField f1 = jfs.get(f0.getName());
+            if (f1 == null) {
+                if (BuildData.CURRENT.getDebugStatus())
+                    System.out.println("[MemoryStruct] Field not found in class: " + f0.getName());
+            } else if (obj == null || f1.type.isAssignableFrom(obj.getClass())) {
+                UNSAFE.putObject(this, f1.offset, obj);
+            } else if (BuildData.CURRENT.getDebugStatus()) {
+                System.out.println("Type does not match. " + obj.getClass() + " cannot cast to" + f1.type);
             }
             f0.close();
         }
@@ -208,9 +246,8 @@ public class MemoryStruct extends MemoryObject {
     @Override
     public MemoryStruct readObj(MemoryInputStream mis) throws IOException {
         try {
-            UNSAFE.putBoolean(this, UNSAFE.objectFieldOffset(MemoryStruct.class.getDeclaredField("isSynthetic")),
-                    ((BooleanWrapper) mis.readObj()).booleanValue());
-        } catch (ReflectiveOperationException e) {
+            UNSAFE.putBoolean(this, IS_SYNTHETIC_OFFSET, ((BooleanWrapper) mis.readObj()).booleanValue());
+        } catch (InstantiationException e) {
             throw new IOException("Failed to read data", e);
         }
         return (MemoryStruct) super.readObj(mis);
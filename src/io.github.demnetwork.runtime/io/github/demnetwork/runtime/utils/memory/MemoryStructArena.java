@@ -0,0 +1,157 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Allocates the storages of many small structs out of a few large ones.
+ * <p>
+ * Every region handed out by the arena has the same size, and is a slice of a
+ * large chunk, so allocating a region is an offset bump instead of an
+ * allocation of native memory. Chunks are allocated when the previous ones
+ * are full, and kept until the arena is closed.
+ * <p>
+ * Regions cannot be freed one by one. {@link #reset()} frees every region at
+ * once, and {@link #close()} frees the chunks.
+ */
+public final class MemoryStructArena implements AutoCloseable {
+    public static final long DEFAULT_CHUNK_SIZE = 16L << 20;
+    public final long regionSize;
+    /** Size of every chunk, a multiple of the region size */
+    public final long chunkSize;
+    private final ArrayList<OffHeapMemoryStorage> chunks = new ArrayList<>();
+    /** Index of the chunk regions are allocated from */
+    private int chunk = 0;
+    /** Offset of the next region in the current chunk */
+    private long offset = 0L;
+    private long count = 0L;
+    private volatile boolean closed = false;
+    private final Object LOCK = new Object();
+
+    public MemoryStructArena(long regionSize) {
+        this(regionSize, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param regionSize The size of the storage of every struct
+     * @param chunkSize  The size of the chunks, rounded down to a multiple of the
+     *                   region size. Chunks always hold at least one region.
+     */
+    public MemoryStructArena(long regionSize, long chunkSize) {
+        if (regionSize < 1)
+            throw new IllegalArgumentException("Illegal Region Size");
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("Illegal Chunk Size");
+        this.regionSize = regionSize;
+        this.chunkSize = Math.max(1L, chunkSize / regionSize) * regionSize;
+    }
+
+    /**
+     * Allocates the storage of a struct. The storage is zeroed and cannot be
+     * closed on its own.
+     *
+     * @return A region of {@link #regionSize} bytes
+     */
+    public SlicedOffHeapMemoryStorage allocate() {
+        synchronized (LOCK) {
+            ensureOpen();
+            if (this.chunk == this.chunks.size() || this.offset == this.chunkSize) {
+                if (this.chunk < this.chunks.size())
+                    this.chunk++; // The current chunk is full
+                if (this.chunk == this.chunks.size())
+                    this.chunks.add(new OffHeapMemoryStorage(this.chunkSize, true));
+                this.offset = 0L;
+            }
+            SlicedOffHeapMemoryStorage s = this.chunks.get(this.chunk).slice0(this.offset, this.regionSize);
+            this.offset += this.regionSize;
+            this.count++;
+            return s;
+        }
+    }
+
+    /** Builds a struct over a newly allocated region */
+    public SyntheticMemoryStruct allocate(MemoryStructBuilder builder, Object... args) throws IOException {
+        if (builder == null)
+            throw new NullPointerException();
+        return builder.build(allocate(), args);
+    }
+
+    /**
+     * Frees every region at once, and zeroes the memory they used. The chunks
+     * are kept, and reused by the next allocations.
+     *
+     * @apiNote Structs whose storage was allocated before the reset must not be
+     *          used anymore, as their storage will be handed out again
+     */
+    public void reset() {
+        synchronized (LOCK) {
+            ensureOpen();
+            for (int i = 0; i < this.chunk && i < this.chunks.size(); i++)
+                this.chunks.get(i).fill((byte) 0);
+            if (this.chunk < this.chunks.size())
+                OffHeapMemoryBulkOps.fill(null, this.chunks.get(this.chunk).baseAddr, this.offset, (byte) 0);
+            this.chunk = 0;
+            this.offset = 0L;
+            this.count = 0L;
+        }
+    }
+
+    /** @return The amount of regions allocated since the last reset */
+    public long getAllocatedCount() {
+        synchronized (LOCK) {
+            return this.count;
+        }
+    }
+
+    /** @return The amount of native memory held by the arena */
+    public long getReservedBytes() {
+        synchronized (LOCK) {
+            return this.chunks.size() * this.chunkSize;
+        }
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /** Frees every chunk, which closes the storage of every struct allocated */
+    @Override
+    public void close() {
+        synchronized (LOCK) {
+            if (closed)
+                return;
+            this.closed = true;
+            for (int i = 0; i < this.chunks.size(); i++)
+                this.chunks.get(i).close();
+            this.chunks.clear();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("Closed MemoryStructArena");
+    }
+}
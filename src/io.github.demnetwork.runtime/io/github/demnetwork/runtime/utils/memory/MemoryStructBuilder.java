@@ -103,7 +103,11 @@ public final class MemoryStructBuilder {
     }
 
     public SyntheticMemoryStruct build(OffHeapMemoryStorage storage, Object... args) throws IOException {
-        return new SyntheticMemoryStruct(this.name, storage, this.fields.toArray(new FieldData[this.fields.size()]),
-                this.logic, args);
+        return new SyntheticMemoryStruct(this.name, storage, getFields(), this.logic, args);
+    }
+
+    /** @return The fields added so far, in order */
+    FieldData[] getFields() {
+        return this.fields.toArray(new FieldData[this.fields.size()]);
     }
 }
@@ -0,0 +1,594 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage.UNSAFE;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import io.github.demnetwork.runtime.utils.memory.MemoryObject.FieldData;
+import io.github.demnetwork.runtime.utils.memory.serial.DelegatedMemoryInputStream;
+import io.github.demnetwork.runtime.utils.memory.serial.DelegatedMemoryOutputStream;
+import io.github.demnetwork.runtime.utils.memory.serial.MemorySerializable;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.*;
+
+/**
+ * Holds many structs of the same {@link MemoryStructBuilder} definition, stored
+ * by column instead of by struct.
+ * <p>
+ * Every field whose default value is a primitive wrapper is stored as one
+ * contiguous off-heap column, in native byte order, so scanning a field of
+ * every row reads only that column. The values of the other fields are kept in
+ * an on-heap column, where every row starts with its own copy of the default
+ * value. Rows are accessed through {@link Row} views, which follow
+ * the rules of {@link MemoryObject#get(String)} and
+ * {@link MemoryObject#set(String, Object)}, and use the same field IDs as the
+ * structs built from the same definition.
+ * <p>
+ * Unlike a struct, whose fields accept any {@link MemorySerializable}, a
+ * primitive column is fixed to the wrapper type of its default value, so
+ * setting a value of another type throws a {@link ClassCastException}. Fields
+ * whose type may change should have a non-primitive default.
+ * <p>
+ * Fields added by the constructor logic of the definition are not stored. This
+ * class is not safe for concurrent use.
+ */
+public final class MemoryStructColumns implements Closeable {
+    private static final byte OBJECT = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte CHAR = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final int[] WIDTH = { 0, 1, 2, 4, 8, 8 };
+    private final String[] names;
+    private final int[] mods;
+    private final byte[] kinds;
+    private final MemorySerializable[] defaults;
+    /**
+     * Encodings of the defaults of the on-heap columns, decoded once per row so
+     * rows never share a default instance
+     */
+    private final byte[][] encodedDefaults;
+    private final HashMap<String, Integer> fieldIDs;
+    private final OffHeapMemoryStorage[] columns;
+    /** Base addresses of {@link #columns}, updated when they grow */
+    private final long[] addrs;
+    private final MemorySerializable[][] objects;
+    private int size = 0;
+    private int capacity;
+    private volatile boolean closed = false;
+
+    public MemoryStructColumns(MemoryStructBuilder definition) {
+        this(definition, 16);
+    }
+
+    public MemoryStructColumns(MemoryStructBuilder definition, int initialCapacity) {
+        if (definition == null)
+            throw new NullPointerException();
+        if (initialCapacity < 1)
+            throw new IllegalArgumentException("Illegal Capacity");
+        FieldData[] data = definition.getFields();
+        int n = data.length;
+        this.names = new String[n];
+        this.mods = new int[n];
+        this.kinds = new byte[n];
+        this.defaults = new MemorySerializable[n];
+        this.encodedDefaults = new byte[n][];
+        this.fieldIDs = new HashMap<>(n * 2);
+        this.columns = new OffHeapMemoryStorage[n];
+        this.addrs = new long[n];
+        this.objects = new MemorySerializable[n][];
+        this.capacity = initialCapacity;
+        for (int i = 0; i < n; i++) {
+            FieldData d = data[i];
+            int mod = d.mod & MemoryObject.FIELD_MODIFIERS;
+            if ((mod & (Modifier.STATIC | Modifier.TRANSIENT)) != 0)
+                throw new IllegalArgumentException("Cannot have static nor Transient fields to be serialized to memory");
+            this.names[i] = d.name;
+            this.mods[i] = mod;
+            this.defaults[i] = d.obj;
+            this.kinds[i] = kindOf(d.obj);
+            this.fieldIDs.put(d.name, Integer.valueOf(i + 1));
+            if (this.kinds[i] == OBJECT) {
+                this.objects[i] = new MemorySerializable[initialCapacity];
+                if (d.obj != null)
+                    this.encodedDefaults[i] = encode(d.name, d.obj);
+            } else {
+                this.columns[i] = new OffHeapMemoryStorage((long) initialCapacity * WIDTH[this.kinds[i]], true);
+                this.addrs[i] = this.columns[i].baseAddr;
+            }
+        }
+    }
+
+    private static byte[] encode(String name, MemorySerializable obj) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (DelegatedMemoryOutputStream os = new DelegatedMemoryOutputStream(bos)) {
+            os.writeObj(obj);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to encode the default value of field: " + name, e);
+        }
+        return bos.toByteArray();
+    }
+
+    /** @return A new copy of the default value of an on-heap column */
+    private MemorySerializable copyDefault(int f) throws IOException {
+        byte[] b = this.encodedDefaults[f];
+        if (b == null)
+            return null;
+        try (DelegatedMemoryInputStream is = new DelegatedMemoryInputStream(new ByteArrayInputStream(b))) {
+            return is.readObj();
+        } catch (InstantiationException e) {
+            throw new IOException("Unable to decode the default value of field: " + this.names[f], e);
+        }
+    }
+
+    private static byte kindOf(MemorySerializable obj) {
+        if (obj instanceof BooleanWrapper)
+            return BOOLEAN;
+        if (obj instanceof CharacterWrapper)
+            return CHAR;
+        if (obj instanceof IntWrapper)
+            return INT;
+        if (obj instanceof LongWrapper)
+            return LONG;
+        if (obj instanceof DoubleWrapper)
+            return DOUBLE;
+        return OBJECT;
+    }
+
+    /** @see MemoryObject#getFieldID(String) */
+    public int getFieldID(String name) throws IOException, NoSuchFieldException {
+        ensureOpen();
+        if (name == null)
+            throw new NullPointerException("Null field name");
+        Integer id = this.fieldIDs.get(name);
+        if (id == null)
+            throw new NoSuchFieldException(name);
+        return id.intValue();
+    }
+
+    public int getFieldCount() {
+        return this.names.length;
+    }
+
+    /** @return The amount of rows */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Adds a row holding the default values of the definition
+     *
+     * @return The index of the row
+     * @throws IOException If this container is closed
+     */
+    public int addRow() throws IOException {
+        ensureOpen();
+        if (this.size == this.capacity)
+            grow();
+        int row = this.size;
+        for (int i = 0; i < this.names.length; i++)
+            write(i, row, this.kinds[i] == OBJECT ? copyDefault(i) : this.defaults[i]);
+        this.size = row + 1;
+        return row;
+    }
+
+    /** @return A view of a row, valid until the rows are cleared */
+    public Row row(int index) throws IOException {
+        ensureOpen();
+        checkRow(index);
+        return new Row(index);
+    }
+
+    /** Removes every row, keeping the columns allocated */
+    public void clear() throws IOException {
+        ensureOpen();
+        for (int i = 0; i < this.objects.length; i++)
+            if (this.objects[i] != null)
+                Arrays.fill(this.objects[i], 0, this.size, null);
+        this.size = 0;
+    }
+
+    private void grow() {
+        if (this.capacity == Integer.MAX_VALUE)
+            throw new IllegalStateException("Too many rows");
+        int cap = (int) Math.min(Integer.MAX_VALUE, this.capacity * 2L);
+        for (int i = 0; i < this.names.length; i++) {
+            if (this.kinds[i] == OBJECT) {
+                this.objects[i] = Arrays.copyOf(this.objects[i], cap);
+                continue;
+            }
+            int w = WIDTH[this.kinds[i]];
+            OffHeapMemoryStorage old = this.columns[i];
+            OffHeapMemoryStorage col = new OffHeapMemoryStorage((long) cap * w, true);
+            old.copyTo(col, 0L, 0L, (long) this.size * w);
+            this.columns[i] = col;
+            this.addrs[i] = col.baseAddr;
+            old.close();
+        }
+        this.capacity = cap;
+    }
+
+    private MemorySerializable read(int f, int row) {
+        long a = this.addrs[f] + (long) row * WIDTH[this.kinds[f]];
+        switch (this.kinds[f]) {
+            case BOOLEAN:
+                return PrimitiveWrappers.of(UNSAFE.getByte(a) != 0);
+            case CHAR:
+                return new CharacterWrapper(UNSAFE.getChar(a));
+            case INT:
+                return new IntWrapper(UNSAFE.getInt(a));
+            case LONG:
+                return new LongWrapper(UNSAFE.getLong(a));
+            case DOUBLE:
+                return new DoubleWrapper(UNSAFE.getDouble(a));
+            default:
+                return this.objects[f][row];
+        }
+    }
+
+    private void write(int f, int row, MemorySerializable v) {
+        long a = this.addrs[f] + (long) row * WIDTH[this.kinds[f]];
+        switch (this.kinds[f]) {
+            case BOOLEAN:
+                UNSAFE.putByte(a, ((BooleanWrapper) v).booleanValue() ? (byte) 1 : (byte) 0);
+                break;
+            case CHAR:
+                UNSAFE.putChar(a, ((CharacterWrapper) v).charValue());
+                break;
+            case INT:
+                UNSAFE.putInt(a, ((IntWrapper) v).intValue());
+                break;
+            case LONG:
+                UNSAFE.putLong(a, ((LongWrapper) v).longValue());
+                break;
+            case DOUBLE:
+                UNSAFE.putDouble(a, ((DoubleWrapper) v).doubleValue());
+                break;
+            default:
+                this.objects[f][row] = v;
+                break;
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= this.size)
+            throw new IllegalArgumentException("Illegal Row: " + row);
+    }
+
+    /** @return The index of the accessible field */
+    private int field(int fieldID) {
+        if (fieldID > this.names.length || fieldID <= 0)
+            throw new IllegalArgumentException("Illegal Field ID: " + fieldID);
+        int f = fieldID - 1;
+        if ((this.mods[f] & Modifier.PUBLIC) == 0)
+            throw new SecurityException("Inaccessible field: " + this.names[f]);
+        return f;
+    }
+
+    private int writableField(int fieldID) {
+        int f = field(fieldID);
+        if ((this.mods[f] & Modifier.FINAL) != 0)
+            throw new IllegalArgumentException("Cannot modify field, because it is final");
+        return f;
+    }
+
+    /** @return The index of the accessible field, whose column is of a kind */
+    private int field(int fieldID, byte kind) {
+        int f = field(fieldID);
+        if (this.kinds[f] != kind)
+            throw new ClassCastException("Field \"" + this.names[f] + "\" does not hold that type");
+        return f;
+    }
+
+    /** @return The index of the accessible field, whose column is numeric */
+    private int numericField(int fieldID, boolean allowDouble) {
+        int f = field(fieldID);
+        byte k = this.kinds[f];
+        if (k != INT && k != LONG && (k != DOUBLE || !allowDouble))
+            throw new ClassCastException("Field \"" + this.names[f] + "\" does not hold that type");
+        return f;
+    }
+
+    public int getInt(int row, int fieldID) throws IOException {
+        ensureOpen();
+        checkRow(row);
+        return UNSAFE.getInt(this.addrs[field(fieldID, INT)] + ((long) row << 2));
+    }
+
+    public void setInt(int row, int fieldID, int v) throws IOException {
+        ensureOpen();
+        checkRow(row);
+        int f = writableField(fieldID);
+        if (this.kinds[f] != INT)
+            throw new ClassCastException("Field \"" + this.names[f] + "\" does not hold that type");
+        UNSAFE.putInt(this.addrs[f] + ((long) row << 2), v);
+    }
+
+    public long getLong(int row, int fieldID) throws IOException {
+        ensureOpen();
+        checkRow(row);
+        return UNSAFE.getLong(this.addrs[field(fieldID, LONG)] + ((long) row << 3));
+    }
+
+    public void setLong(int row, int fieldID, long v) throws IOException {
+        ensureOpen();
+        checkRow(row);
+        int f = writableField(fieldID);
+        if (this.kinds[f] != LONG)
+            throw new ClassCastException("Field \"" + this.names[f] + "\" does not hold that type");
+        UNSAFE.putLong(this.addrs[f] + ((long) row << 3), v);
+    }
+
+    public double getDouble(int row, int fieldID) throws IOException {
+        ensureOpen();
+        checkRow(row);
+        return UNSAFE.getDouble(this.addrs[field(fieldID, DOUBLE)] + ((long) row << 3));
+    }
+
+    public void setDouble(int row, int fieldID, double v) throws IOException {
+        ensureOpen();
+        checkRow(row);
+        int f = writableField(fieldID);
+        if (this.kinds[f] != DOUBLE)
+            throw new ClassCastException("Field \"" + this.names[f] + "\" does not hold that type");
+        UNSAFE.putDouble(this.addrs[f] + ((long) row << 3), v);
+    }
+
+    /** @return The sum of an int or long field over every row */
+    public long sumLong(int fieldID) throws IOException {
+        ensureOpen();
+        int f = numericField(fieldID, false);
+        long a = this.addrs[f];
+        int n = this.size;
+        long s = 0L;
+        if (this.kinds[f] == INT) {
+            for (int i = 0; i < n; i++)
+                s += UNSAFE.getInt(a + ((long) i << 2));
+        } else {
+            for (int i = 0; i < n; i++)
+                s += UNSAFE.getLong(a + ((long) i << 3));
+        }
+        return s;
+    }
+
+    /** @return The sum of a numeric field over every row */
+    public double sumDouble(int fieldID) throws IOException {
+        ensureOpen();
+        int f = numericField(fieldID, true);
+        if (this.kinds[f] != DOUBLE)
+            return sumLong(fieldID);
+        long a = this.addrs[f];
+        int n = this.size;
+        double s = 0.0;
+        for (int i = 0; i < n; i++)
+            s += UNSAFE.getDouble(a + ((long) i << 3));
+        return s;
+    }
+
+    /**
+     * @return The smallest value of an int or long field, or
+     *         {@link Long#MAX_VALUE} if there are no rows
+     */
+    public long minLong(int fieldID) throws IOException {
+        ensureOpen();
+        int f = numericField(fieldID, false);
+        long a = this.addrs[f];
+        int n = this.size;
+        long m = Long.MAX_VALUE;
+        if (this.kinds[f] == INT) {
+            for (int i = 0; i < n; i++)
+                m = Math.min(m, UNSAFE.getInt(a + ((long) i << 2)));
+        } else {
+            for (int i = 0; i < n; i++)
+                m = Math.min(m, UNSAFE.getLong(a + ((long) i << 3)));
+        }
+        return m;
+    }
+
+    /**
+     * @return The largest value of an int or long field, or
+     *         {@link Long#MIN_VALUE} if there are no rows
+     */
+    public long maxLong(int fieldID) throws IOException {
+        ensureOpen();
+        int f = numericField(fieldID, false);
+        long a = this.addrs[f];
+        int n = this.size;
+        long m = Long.MIN_VALUE;
+        if (this.kinds[f] == INT) {
+            for (int i = 0; i < n; i++)
+                m = Math.max(m, UNSAFE.getInt(a + ((long) i << 2)));
+        } else {
+            for (int i = 0; i < n; i++)
+                m = Math.max(m, UNSAFE.getLong(a + ((long) i << 3)));
+        }
+        return m;
+    }
+
+    /**
+     * @return The smallest value of a double field, or
+     *         {@link Double#POSITIVE_INFINITY} if there are no rows
+     */
+    public double minDouble(int fieldID) throws IOException {
+        ensureOpen();
+        long a = this.addrs[field(fieldID, DOUBLE)];
+        int n = this.size;
+        double m = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++)
+            m = Math.min(m, UNSAFE.getDouble(a + ((long) i << 3)));
+        return m;
+    }
+
+    /**
+     * @return The largest value of a double field, or
+     *         {@link Double#NEGATIVE_INFINITY} if there are no rows
+     */
+    public double maxDouble(int fieldID) throws IOException {
+        ensureOpen();
+        long a = this.addrs[field(fieldID, DOUBLE)];
+        int n = this.size;
+        double m = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++)
+            m = Math.max(m, UNSAFE.getDouble(a + ((long) i << 3)));
+        return m;
+    }
+
+    /**
+     * Finds the rows whose value of an int or long field is in a range
+     *
+     * @param min The smallest value, inclusive
+     * @param max The largest value, inclusive
+     * @return The indexes of the rows, in ascending order
+     */
+    public int[] filterLong(int fieldID, long min, long max) throws IOException {
+        ensureOpen();
+        int f = numericField(fieldID, false);
+        long a = this.addrs[f];
+        boolean ints = this.kinds[f] == INT;
+        int n = this.size;
+        int[] out = new int[Math.min(n, 1024)];
+        int c = 0;
+        for (int i = 0; i < n; i++) {
+            long v = ints ? UNSAFE.getInt(a + ((long) i << 2)) : UNSAFE.getLong(a + ((long) i << 3));
+            if (v >= min && v <= max) {
+                if (c == out.length)
+                    out = Arrays.copyOf(out, (int) Math.min(n, c * 2L));
+                out[c++] = i;
+            }
+        }
+        return c == out.length ? out : Arrays.copyOf(out, c);
+    }
+
+    /**
+     * Finds the rows whose value of a double field is in a range
+     *
+     * @param min The smallest value, inclusive
+     * @param max The largest value, inclusive
+     * @return The indexes of the rows, in ascending order
+     */
+    public int[] filterDouble(int fieldID, double min, double max) throws IOException {
+        ensureOpen();
+        long a = this.addrs[field(fieldID, DOUBLE)];
+        int n = this.size;
+        int[] out = new int[Math.min(n, 1024)];
+        int c = 0;
+        for (int i = 0; i < n; i++) {
+            double v = UNSAFE.getDouble(a + ((long) i << 3));
+            if (v >= min && v <= max) {
+                if (c == out.length)
+                    out = Arrays.copyOf(out, (int) Math.min(n, c * 2L));
+                out[c++] = i;
+            }
+        }
+        return c == out.length ? out : Arrays.copyOf(out, c);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("Closed MemoryStructColumns");
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /** Frees the columns */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        this.closed = true;
+        for (int i = 0; i < this.columns.length; i++) {
+            if (this.columns[i] != null)
+                this.columns[i].close();
+            this.objects[i] = null;
+        }
+    }
+
+    /**
+     * A view of one row. Primitive values are copied out of their column, so the
+     * values returned are not updated by later writes.
+     */
+    public final class Row {
+        private final int index;
+
+        private Row(int index) {
+            this.index = index;
+        }
+
+        public int getIndex() {
+            return this.index;
+        }
+
+        /** @see MemoryObject#getFieldID(String) */
+        public int getFieldID(String name) throws IOException, NoSuchFieldException {
+            return MemoryStructColumns.this.getFieldID(name);
+        }
+
+        /** @see MemoryObject#get(String) */
+        public Object get(String name) throws IOException, NoSuchFieldException, SecurityException {
+            return this.get(getFieldID(name));
+        }
+
+        /** @see MemoryObject#get(int) */
+        public Object get(int fieldID) throws IOException, SecurityException {
+            ensureOpen();
+            checkRow(this.index);
+            return read(field(fieldID), this.index);
+        }
+
+        /** @see #set(int, Object) */
+        public void set(String name, Object obj) throws IOException, NoSuchFieldException, SecurityException {
+            if (name == null)
+                throw new NullPointerException("Null Name");
+            this.set(getFieldID(name), obj);
+        }
+
+        /**
+         * @throws ClassCastException If the value is not a
+         *                            {@link MemorySerializable}, or if the field
+         *                            is stored in a primitive column and the
+         *                            value is not of the wrapper type of its
+         *                            default
+         * @see MemoryObject#set(int, Object)
+         */
+        public void set(int fieldID, Object obj) throws IOException, SecurityException {
+            ensureOpen();
+            if (!(obj instanceof MemorySerializable))
+                throw new ClassCastException("Incompatible Object provided");
+            checkRow(this.index);
+            int f = writableField(fieldID);
+            if (kinds[f] != OBJECT && obj.getClass() != defaults[f].getClass())
+                throw new ClassCastException("Incompatible Object provided");
+            write(f, this.index, (MemorySerializable) obj);
+        }
+    }
+}
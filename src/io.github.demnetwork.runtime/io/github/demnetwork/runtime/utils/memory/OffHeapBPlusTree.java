@@ -0,0 +1,821 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage.UNSAFE;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import io.github.demnetwork.runtime.utils.memory.serial.StringWrapper;
+
+/**
+ * An ordered index from byte-comparable keys to <code>long</code> values,
+ * stored as a B+tree in the pages of an {@link OffHeapMemoryStorage}.
+ * <p>
+ * Keys are compared as unsigned bytes, in lexicographic order. Keys up to
+ * {@link #maxKeyLength} bytes long are supported, and every slot of a page
+ * reserves that many bytes, so the page size and the key length decide how
+ * many entries a page holds. <code>long</code> keys are encoded by
+ * {@link #key(long)} so that their byte order is their numeric order, and
+ * strings by {@link #key(String)}, in UTF-8. The values are usually offsets of
+ * records stored elsewhere.
+ * <p>
+ * Leaves are linked in key order, so a {@link Cursor} scans a range without
+ * going back up the tree. Removed entries leave their page in place, pages are
+ * never merged nor freed. {@link #bulkLoad(long[], long[])} builds a tree from
+ * sorted entries with full pages, without any split.
+ * <p>
+ * Trees opened with {@link #open(File, int, int)} live in a file mapped in
+ * memory, and keep their entries across runs. Changes reach the file when the
+ * tree is flushed or closed, an update interrupted by a crash may leave the
+ * file inconsistent. This class is not safe for concurrent use.
+ * <p>
+ * Page 0 holds the metadata, the other pages are nodes. Layout of a page, in
+ * native byte order:
+ *
+ * <pre>
+ * meta:  magic(8) pageSize(4) maxKeyLength(4) root(8) pages(8) height(4) size(8) firstLeaf(8) littleEndian(1)
+ * node:  type(1) padding(3) count(4) link(8) (keyLength(2) key(maxKeyLength) payload(8)) * count
+ * </pre>
+ *
+ * The link of a leaf is the next leaf, and its payloads are values. The link
+ * of an inner node is its first child, and every key is followed by the child
+ * holding the keys that are not less than it.
+ */
+public final class OffHeapBPlusTree implements AutoCloseable {
+    public static final long MAGIC = 0x52554D4250545245L; // "RUMBPTRE"
+    public static final int DEFAULT_PAGE_SIZE = 4096;
+    private static final long BYTE_ARRAY_BASE = UNSAFE.arrayBaseOffset(byte[].class);
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+    private static final long PAGE_SIZE_OFFSET = 8;
+    private static final long KEY_LENGTH_OFFSET = 12;
+    private static final long ROOT_OFFSET = 16;
+    private static final long PAGES_OFFSET = 24;
+    private static final long HEIGHT_OFFSET = 32;
+    private static final long SIZE_OFFSET = 40;
+    private static final long FIRST_LEAF_OFFSET = 48;
+    private static final long ORDER_OFFSET = 56;
+    private static final long TYPE_OFFSET = 0;
+    private static final long COUNT_OFFSET = 4;
+    private static final long LINK_OFFSET = 8;
+    private static final long NODE_HEADER = 16;
+    private static final byte LEAF = 1;
+    private static final byte INNER = 2;
+    private static final long INITIAL_PAGES = 16;
+    private static final int MAX_HEIGHT = 64;
+    public final int maxKeyLength;
+    public final int pageSize;
+    private final int slotSize;
+    /**
+     * Entries a node holds. Pages have room for one more slot, so an entry is
+     * inserted before the node is split.
+     */
+    private final int capacity;
+    /** The file the tree is stored in, or <code>null</code> */
+    private final File file;
+    private OffHeapMemoryStorage storage;
+    private long base;
+    private long pages;
+    private long root;
+    private int height;
+    private long size;
+    private long firstLeaf;
+    private int modCount = 0;
+    /** Pages visited by the last descent, from the root */
+    private final long[] path = new long[MAX_HEIGHT];
+    /** Encoded <code>long</code> key */
+    private final byte[] scratch = new byte[8];
+    /** Key moved up to a parent by a split */
+    private final byte[] separator;
+    private int separatorLength;
+    /** Leaves filled by the running bulk load */
+    private OffHeapLongList loaded;
+    private volatile boolean closed = false;
+
+    /** @param maxKeyLength The length of the longest key, in bytes */
+    public OffHeapBPlusTree(int maxKeyLength) {
+        this(maxKeyLength, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param maxKeyLength The length of the longest key, in bytes
+     * @param pageSize     The size of the pages, in bytes
+     */
+    public OffHeapBPlusTree(int maxKeyLength, int pageSize) {
+        this(new OffHeapMemoryStorage(INITIAL_PAGES * checkLayout(maxKeyLength, pageSize), true), null,
+                maxKeyLength, pageSize);
+        init();
+    }
+
+    private OffHeapBPlusTree(OffHeapMemoryStorage storage, File file, int maxKeyLength, int pageSize) {
+        this.storage = storage;
+        this.base = storage.baseAddr;
+        this.file = file;
+        this.maxKeyLength = maxKeyLength;
+        this.pageSize = pageSize;
+        this.slotSize = maxKeyLength + 10;
+        this.capacity = (int) ((pageSize - NODE_HEADER) / this.slotSize) - 1;
+        this.separator = new byte[maxKeyLength];
+    }
+
+    /** @return The page size, once checked */
+    private static int checkLayout(int maxKeyLength, int pageSize) {
+        if (maxKeyLength < 1 || maxKeyLength > 0xFFFF)
+            throw new IllegalArgumentException("Illegal Key Length");
+        if (pageSize < 64 || (pageSize - NODE_HEADER) / (maxKeyLength + 10L) - 1 < 3)
+            throw new IllegalArgumentException("Page size too small for the key length");
+        return pageSize;
+    }
+
+    /**
+     * Opens a tree stored in a file, creating it if the file does not exist or
+     * is empty
+     *
+     * @param file         The file holding the tree
+     * @param maxKeyLength The length of the longest key, which must match the
+     *                     one of an existing tree
+     * @param pageSize     The size of the pages, which must match the one of an
+     *                     existing tree
+     * @throws IOException If the file could not be mapped, or does not hold a
+     *                     tree with this layout
+     */
+    public static OffHeapBPlusTree open(File file, int maxKeyLength, int pageSize) throws IOException {
+        if (file == null)
+            throw new NullPointerException();
+        checkLayout(maxKeyLength, pageSize);
+        if (file.exists() && file.length() > 0L) {
+            long len = file.length();
+            if (len % pageSize != 0 || len < 2L * pageSize)
+                throw new IOException("Not a tree file with pages of " + pageSize + " bytes");
+            OffHeapBPlusTree t = new OffHeapBPlusTree(new FileMappedOffHeapMemoryStorage(file, len), file,
+                    maxKeyLength, pageSize);
+            try {
+                t.load();
+            } catch (IOException e) {
+                t.storage.close();
+                throw e;
+            }
+            return t;
+        }
+        OffHeapBPlusTree t = new OffHeapBPlusTree(
+                new FileMappedOffHeapMemoryStorage(file, INITIAL_PAGES * pageSize), file, maxKeyLength, pageSize);
+        t.init();
+        return t;
+    }
+
+    private void init() {
+        UNSAFE.putLong(this.base, MAGIC);
+        UNSAFE.putInt(this.base + PAGE_SIZE_OFFSET, this.pageSize);
+        UNSAFE.putInt(this.base + KEY_LENGTH_OFFSET, this.maxKeyLength);
+        UNSAFE.putByte(this.base + ORDER_OFFSET, LITTLE_ENDIAN ? (byte) 1 : (byte) 0);
+        reset();
+    }
+
+    private void load() throws IOException {
+        if (UNSAFE.getLong(this.base) != MAGIC)
+            throw new IOException("Not a tree file");
+        if (UNSAFE.getByte(this.base + ORDER_OFFSET) != (LITTLE_ENDIAN ? 1 : 0))
+            throw new IOException("The tree was written with another byte order");
+        if (UNSAFE.getInt(this.base + PAGE_SIZE_OFFSET) != this.pageSize
+                || UNSAFE.getInt(this.base + KEY_LENGTH_OFFSET) != this.maxKeyLength)
+            throw new IOException("The tree was written with another page size or key length");
+        this.root = UNSAFE.getLong(this.base + ROOT_OFFSET);
+        this.pages = UNSAFE.getLong(this.base + PAGES_OFFSET);
+        this.height = UNSAFE.getInt(this.base + HEIGHT_OFFSET);
+        this.size = UNSAFE.getLong(this.base + SIZE_OFFSET);
+        this.firstLeaf = UNSAFE.getLong(this.base + FIRST_LEAF_OFFSET);
+        long n = this.storage.size / this.pageSize;
+        if (this.pages < 2 || this.pages > n || this.root < 1 || this.root >= this.pages || this.height < 1
+                || this.height > MAX_HEIGHT || this.firstLeaf < 1 || this.firstLeaf >= this.pages)
+            throw new IOException("Corrupt tree metadata");
+    }
+
+    /** Makes the tree a single empty leaf, the pages are reused */
+    private void reset() {
+        this.pages = 1L;
+        this.root = newPage(LEAF);
+        this.firstLeaf = this.root;
+        this.height = 1;
+        this.size = 0L;
+        syncMeta();
+    }
+
+    private void syncMeta() {
+        UNSAFE.putLong(this.base + ROOT_OFFSET, this.root);
+        UNSAFE.putLong(this.base + PAGES_OFFSET, this.pages);
+        UNSAFE.putInt(this.base + HEIGHT_OFFSET, this.height);
+        UNSAFE.putLong(this.base + SIZE_OFFSET, this.size);
+        UNSAFE.putLong(this.base + FIRST_LEAF_OFFSET, this.firstLeaf);
+    }
+
+    /**
+     * Allocates a page, which may move every page
+     *
+     * @throws IllegalStateException If the storage of the tree could not grow
+     */
+    private long newPage(byte type) {
+        if (this.pages == this.storage.size / this.pageSize)
+            grow();
+        long p = this.pages++;
+        long a = page(p);
+        UNSAFE.setMemory(a, NODE_HEADER, (byte) 0);
+        UNSAFE.putByte(a + TYPE_OFFSET, type);
+        return p;
+    }
+
+    private void grow() {
+        long bytes = Math.multiplyExact(this.storage.size, 2L);
+        OffHeapMemoryStorage old = this.storage;
+        OffHeapMemoryStorage s;
+        if (this.file == null) {
+            s = new OffHeapMemoryStorage(bytes, true);
+            old.copyTo(s, 0L, 0L, this.pages * this.pageSize);
+            old.close();
+        } else {
+            ((FileMappedOffHeapMemoryStorage) old).force();
+            old.close();
+            try {
+                s = new FileMappedOffHeapMemoryStorage(this.file, bytes);
+            } catch (IOException e) {
+                this.closed = true;
+                throw new IllegalStateException("Failed to grow the tree file", e);
+            }
+        }
+        this.storage = s;
+        this.base = s.baseAddr;
+    }
+
+    private long page(long p) {
+        return this.base + p * this.pageSize;
+    }
+
+    private long slot(long pageAddr, int i) {
+        return pageAddr + NODE_HEADER + (long) i * this.slotSize;
+    }
+
+    private long payload(long slot) {
+        return UNSAFE.getLong(slot + 2 + this.maxKeyLength);
+    }
+
+    private static int count(long pageAddr) {
+        return UNSAFE.getInt(pageAddr + COUNT_OFFSET);
+    }
+
+    private static int keyLength(long slot) {
+        return UNSAFE.getShort(slot) & 0xFFFF;
+    }
+
+    private static int compare(long slot, Object kb, long ka, int kl) {
+        return OffHeapMemoryBulkOps.compare(null, slot + 2, keyLength(slot), kb, ka, kl);
+    }
+
+    /** @return The index of the key, or <code>-(insertion point + 1)</code> */
+    private int search(long pageAddr, Object kb, long ka, int kl) {
+        int lo = 0;
+        int hi = count(pageAddr) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compare(slot(pageAddr, mid), kb, ka, kl);
+            if (c < 0)
+                lo = mid + 1;
+            else if (c > 0)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -(lo + 1);
+    }
+
+    /** @return The leaf the key belongs to, the pages above it are in {@link #path} */
+    private long findLeaf(Object kb, long ka, int kl) {
+        long p = this.root;
+        for (int d = 0; d < this.height - 1; d++) {
+            this.path[d] = p;
+            long a = page(p);
+            int i = search(a, kb, ka, kl);
+            int n = i >= 0 ? i + 1 : -(i + 1); // Keys not greater than the key
+            p = n == 0 ? UNSAFE.getLong(a + LINK_OFFSET) : payload(slot(a, n - 1));
+        }
+        return p;
+    }
+
+    /** Inserts a slot, the page must have room for it */
+    private void insertSlot(long pageAddr, int i, Object kb, long ka, int kl, long payload) {
+        int n = count(pageAddr);
+        long s = slot(pageAddr, i);
+        if (i < n)
+            UNSAFE.copyMemory(s, s + this.slotSize, (long) (n - i) * this.slotSize);
+        UNSAFE.putShort(s, (short) kl);
+        UNSAFE.copyMemory(kb, ka, null, s + 2, kl);
+        UNSAFE.putLong(s + 2 + this.maxKeyLength, payload);
+        UNSAFE.putInt(pageAddr + COUNT_OFFSET, n + 1);
+    }
+
+    private void checkKey(byte[] key) {
+        if (key == null)
+            throw new NullPointerException("Null key");
+        if (key.length > this.maxKeyLength)
+            throw new IllegalArgumentException("Key longer than " + this.maxKeyLength + " bytes");
+    }
+
+    private void encode(long key) {
+        long v = key ^ Long.MIN_VALUE;
+        UNSAFE.putLong(this.scratch, BYTE_ARRAY_BASE, LITTLE_ENDIAN ? Long.reverseBytes(v) : v);
+    }
+
+    /** @return The key of a <code>long</code>, whose byte order is its numeric order */
+    public static byte[] key(long key) {
+        byte[] b = new byte[8];
+        long v = key ^ Long.MIN_VALUE;
+        UNSAFE.putLong(b, BYTE_ARRAY_BASE, LITTLE_ENDIAN ? Long.reverseBytes(v) : v);
+        return b;
+    }
+
+    /** @return The UTF-8 encoding of the string, whose byte order is the order of its code points */
+    public static byte[] key(String key) {
+        if (key == null)
+            throw new NullPointerException();
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** @see #key(String) */
+    public static byte[] key(StringWrapper key) {
+        if (key == null)
+            throw new NullPointerException();
+        return key(key.getValue());
+    }
+
+    /** @return <code>true</code> if the key was added, <code>false</code> if its value was replaced */
+    public boolean put(long key, long value) {
+        ensureOpen();
+        encode(key);
+        return put0(this.scratch, BYTE_ARRAY_BASE, 8, value);
+    }
+
+    /** @return <code>true</code> if the key was added, <code>false</code> if its value was replaced */
+    public boolean put(byte[] key, long value) {
+        ensureOpen();
+        checkKey(key);
+        return put0(key, BYTE_ARRAY_BASE, key.length, value);
+    }
+
+    private boolean put0(Object kb, long ka, int kl, long value) {
+        if (kl > this.maxKeyLength)
+            throw new IllegalArgumentException("Key longer than " + this.maxKeyLength + " bytes");
+        long p = findLeaf(kb, ka, kl);
+        long a = page(p);
+        int i = search(a, kb, ka, kl);
+        if (i >= 0) {
+            UNSAFE.putLong(slot(a, i) + 2 + this.maxKeyLength, value);
+            return false;
+        }
+        this.modCount++;
+        insertSlot(a, -(i + 1), kb, ka, kl, value);
+        this.size++;
+        if (count(a) > this.capacity)
+            split(p);
+        syncMeta();
+        return true;
+    }
+
+    /** Splits a node that holds one entry too many, and the ancestors that overflow */
+    private void split(long p) {
+        for (int d = this.height - 1;; d--) {
+            long q = newPage(INNER);
+            long a = page(p);
+            long qa = page(q);
+            int n = count(a);
+            int mid = n >>> 1;
+            if (UNSAFE.getByte(a + TYPE_OFFSET) == LEAF) {
+                UNSAFE.putByte(qa + TYPE_OFFSET, LEAF);
+                UNSAFE.copyMemory(slot(a, mid), slot(qa, 0), (long) (n - mid) * this.slotSize);
+                UNSAFE.putInt(qa + COUNT_OFFSET, n - mid);
+                UNSAFE.putLong(qa + LINK_OFFSET, UNSAFE.getLong(a + LINK_OFFSET));
+                UNSAFE.putLong(a + LINK_OFFSET, q);
+                UNSAFE.putInt(a + COUNT_OFFSET, mid);
+                setSeparator(slot(qa, 0));
+            } else {
+                // The middle key moves up, and its child becomes the first one of the new node
+                long m = slot(a, mid);
+                UNSAFE.putLong(qa + LINK_OFFSET, payload(m));
+                UNSAFE.copyMemory(slot(a, mid + 1), slot(qa, 0), (long) (n - mid - 1) * this.slotSize);
+                UNSAFE.putInt(qa + COUNT_OFFSET, n - mid - 1);
+                UNSAFE.putInt(a + COUNT_OFFSET, mid);
+                setSeparator(m);
+            }
+            if (d == 0) {
+                if (this.height == MAX_HEIGHT)
+                    throw new IllegalStateException("Tree too high");
+                long r = newPage(INNER);
+                long ra = page(r);
+                UNSAFE.putLong(ra + LINK_OFFSET, p);
+                insertSlot(ra, 0, this.separator, BYTE_ARRAY_BASE, this.separatorLength, q);
+                this.root = r;
+                this.height++;
+                return;
+            }
+            p = this.path[d - 1];
+            long pa = page(p);
+            int i = search(pa, this.separator, BYTE_ARRAY_BASE, this.separatorLength);
+            insertSlot(pa, i >= 0 ? i + 1 : -(i + 1), this.separator, BYTE_ARRAY_BASE, this.separatorLength, q);
+            if (count(pa) <= this.capacity)
+                return;
+        }
+    }
+
+    private void setSeparator(long slot) {
+        this.separatorLength = keyLength(slot);
+        UNSAFE.copyMemory(null, slot + 2, this.separator, BYTE_ARRAY_BASE, this.separatorLength);
+    }
+
+    public long getOrDefault(long key, long defaultValue) {
+        ensureOpen();
+        encode(key);
+        return get0(this.scratch, BYTE_ARRAY_BASE, 8, defaultValue);
+    }
+
+    public long getOrDefault(byte[] key, long defaultValue) {
+        ensureOpen();
+        if (key == null)
+            throw new NullPointerException("Null key");
+        return get0(key, BYTE_ARRAY_BASE, key.length, defaultValue);
+    }
+
+    private long get0(Object kb, long ka, int kl, long defaultValue) {
+        if (kl > this.maxKeyLength)
+            return defaultValue;
+        long a = page(findLeaf(kb, ka, kl));
+        int i = search(a, kb, ka, kl);
+        return i >= 0 ? payload(slot(a, i)) : defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        ensureOpen();
+        encode(key);
+        long a = page(findLeaf(this.scratch, BYTE_ARRAY_BASE, 8));
+        return search(a, this.scratch, BYTE_ARRAY_BASE, 8) >= 0;
+    }
+
+    public boolean containsKey(byte[] key) {
+        ensureOpen();
+        if (key == null)
+            throw new NullPointerException("Null key");
+        if (key.length > this.maxKeyLength)
+            return false;
+        long a = page(findLeaf(key, BYTE_ARRAY_BASE, key.length));
+        return search(a, key, BYTE_ARRAY_BASE, key.length) >= 0;
+    }
+
+    /** @return <code>true</code> if the key was removed */
+    public boolean remove(long key) {
+        ensureOpen();
+        encode(key);
+        return remove0(this.scratch, BYTE_ARRAY_BASE, 8);
+    }
+
+    /** @return <code>true</code> if the key was removed */
+    public boolean remove(byte[] key) {
+        ensureOpen();
+        if (key == null)
+            throw new NullPointerException("Null key");
+        if (key.length > this.maxKeyLength)
+            return false;
+        return remove0(key, BYTE_ARRAY_BASE, key.length);
+    }
+
+    private boolean remove0(Object kb, long ka, int kl) {
+        long a = page(findLeaf(kb, ka, kl));
+        int i = search(a, kb, ka, kl);
+        if (i < 0)
+            return false;
+        this.modCount++;
+        int n = count(a);
+        long s = slot(a, i);
+        if (i < n - 1)
+            UNSAFE.copyMemory(s + this.slotSize, s, (long) (n - i - 1) * this.slotSize);
+        UNSAFE.putInt(a + COUNT_OFFSET, n - 1);
+        this.size--;
+        syncMeta();
+        return true;
+    }
+
+    /** @return A cursor over every entry, in key order */
+    public Cursor cursor() {
+        return range((byte[]) null, null);
+    }
+
+    /** @return A cursor over the entries whose key is in <code>[from, to)</code> */
+    public Cursor range(long from, long to) {
+        return range(key(from), key(to));
+    }
+
+    /**
+     * @param from The first key of the range, <code>null</code> for the first
+     *             key of the tree
+     * @param to   The key that ends the range, excluded, <code>null</code> for
+     *             none
+     * @return A cursor over the entries whose key is in <code>[from, to)</code>
+     */
+    public Cursor range(byte[] from, byte[] to) {
+        ensureOpen();
+        if (from == null)
+            return new Cursor(this.firstLeaf, 0, to);
+        long p = findLeaf(from, BYTE_ARRAY_BASE, from.length);
+        int i = search(page(p), from, BYTE_ARRAY_BASE, from.length);
+        return new Cursor(p, i >= 0 ? i : -(i + 1), to);
+    }
+
+    /**
+     * Replaces the entries of the tree with sorted entries. The leaves are
+     * filled completely, so the tree holds them in the fewest pages.
+     *
+     * @throws IllegalArgumentException If the keys are not strictly ascending,
+     *                                  the tree is left empty
+     */
+    public void bulkLoad(long[] keys, long[] values) {
+        ensureOpen();
+        if (keys == null || values == null)
+            throw new NullPointerException();
+        if (keys.length != values.length)
+            throw new IllegalArgumentException("As many keys as values are required");
+        beginLoad();
+        try {
+            for (int i = 0; i < keys.length; i++) {
+                encode(keys[i]);
+                append(this.scratch, BYTE_ARRAY_BASE, 8, values[i]);
+            }
+        } catch (RuntimeException e) {
+            abortLoad();
+            throw e;
+        }
+        endLoad();
+    }
+
+    /** @see #bulkLoad(long[], long[]) */
+    public void bulkLoad(OffHeapLongList keys, OffHeapLongList values) {
+        ensureOpen();
+        if (keys == null || values == null)
+            throw new NullPointerException();
+        if (keys.size() != values.size())
+            throw new IllegalArgumentException("As many keys as values are required");
+        beginLoad();
+        try {
+            for (long i = 0; i < keys.size(); i++) {
+                encode(keys.get(i));
+                append(this.scratch, BYTE_ARRAY_BASE, 8, values.get(i));
+            }
+        } catch (RuntimeException e) {
+            abortLoad();
+            throw e;
+        }
+        endLoad();
+    }
+
+    /** @see #bulkLoad(long[], long[]) */
+    public void bulkLoad(byte[][] keys, long[] values) {
+        ensureOpen();
+        if (keys == null || values == null)
+            throw new NullPointerException();
+        if (keys.length != values.length)
+            throw new IllegalArgumentException("As many keys as values are required");
+        beginLoad();
+        try {
+            for (int i = 0; i < keys.length; i++) {
+                checkKey(keys[i]);
+                append(keys[i], BYTE_ARRAY_BASE, keys[i].length, values[i]);
+            }
+        } catch (RuntimeException e) {
+            abortLoad();
+            throw e;
+        }
+        endLoad();
+    }
+
+    private void beginLoad() {
+        this.modCount++;
+        reset();
+        this.loaded = new OffHeapLongList();
+        this.loaded.add(this.root);
+    }
+
+    /** Adds an entry after the last one loaded */
+    private void append(Object kb, long ka, int kl, long value) {
+        long p = this.loaded.get(this.loaded.size() - 1);
+        long a = page(p);
+        int n = count(a);
+        if (n > 0 && compare(slot(a, n - 1), kb, ka, kl) >= 0)
+            throw new IllegalArgumentException("Keys are not strictly ascending");
+        if (n == this.capacity) {
+            long q = newPage(LEAF);
+            UNSAFE.putLong(page(p) + LINK_OFFSET, q);
+            this.loaded.add(q);
+            a = page(q);
+            n = 0;
+        }
+        insertSlot(a, n, kb, ka, kl, value);
+        this.size++;
+    }
+
+    /** Builds the inner nodes over the loaded leaves, one level at a time */
+    private void endLoad() {
+        OffHeapLongList children = this.loaded;
+        OffHeapLongList lows = null; // The first leaf under every child
+        this.loaded = null;
+        int h = 1;
+        try {
+            while (children.size() > 1) {
+                OffHeapLongList parents = new OffHeapLongList();
+                OffHeapLongList parentLows = new OffHeapLongList();
+                long c = 0;
+                while (c < children.size()) {
+                    long p = newPage(INNER);
+                    UNSAFE.putLong(page(p) + LINK_OFFSET, children.get(c));
+                    parents.add(p);
+                    parentLows.add(lows == null ? children.get(c) : lows.get(c));
+                    c++;
+                    for (int k = 0; k < this.capacity && c < children.size(); k++, c++) {
+                        long low = slot(page(lows == null ? children.get(c) : lows.get(c)), 0);
+                        long pa = page(p);
+                        insertSlot(pa, count(pa), null, low + 2, keyLength(low), children.get(c));
+                    }
+                }
+                children.close();
+                if (lows != null)
+                    lows.close();
+                children = parents;
+                lows = parentLows;
+                h++;
+            }
+            this.root = children.get(0);
+            this.height = h;
+        } finally {
+            children.close();
+            if (lows != null)
+                lows.close();
+        }
+        syncMeta();
+    }
+
+    private void abortLoad() {
+        if (this.loaded != null)
+            this.loaded.close();
+        this.loaded = null;
+        reset();
+    }
+
+    public long size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0L;
+    }
+
+    /** @return The amount of levels of the tree */
+    public int height() {
+        return this.height;
+    }
+
+    /** @return The amount of pages in use, including the metadata page */
+    public long getPageCount() {
+        return this.pages;
+    }
+
+    /** Removes every entry. The pages are kept, and reused by the next entries. */
+    public void clear() {
+        ensureOpen();
+        this.modCount++;
+        reset();
+    }
+
+    /** Writes the changes of a tree stored in a file, does nothing otherwise */
+    public void flush() {
+        ensureOpen();
+        if (this.file != null)
+            ((FileMappedOffHeapMemoryStorage) this.storage).force();
+    }
+
+    private void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("Closed OffHeapBPlusTree");
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        if (this.file != null)
+            ((FileMappedOffHeapMemoryStorage) this.storage).force();
+        this.closed = true;
+        this.storage.close();
+    }
+
+    /**
+     * Walks the entries of a range in key order, following the links between
+     * leaves. A cursor fails once the tree is modified, except through
+     * {@link #setValue(long)}.
+     */
+    public final class Cursor {
+        private long page;
+        private int index;
+        private final byte[] to;
+        private final int expectedModCount;
+        /** Page and index of the current entry, or -1 */
+        private long currentPage = -1L;
+        private int current;
+
+        private Cursor(long page, int index, byte[] to) {
+            this.page = page;
+            this.index = index;
+            this.to = to;
+            this.expectedModCount = OffHeapBPlusTree.this.modCount;
+        }
+
+        /** @return <code>false</code> if there is no entry left in the range */
+        public boolean next() {
+            check();
+            while (this.page != 0L) {
+                long a = page(this.page);
+                if (this.index < count(a)) {
+                    long s = slot(a, this.index);
+                    if (this.to != null && compare(s, this.to, BYTE_ARRAY_BASE, this.to.length) >= 0)
+                        break;
+                    this.currentPage = this.page;
+                    this.current = this.index++;
+                    return true;
+                }
+                this.page = UNSAFE.getLong(a + LINK_OFFSET);
+                this.index = 0;
+            }
+            this.page = 0L;
+            this.currentPage = -1L;
+            return false;
+        }
+
+        private long currentSlot() {
+            check();
+            if (this.currentPage < 0L)
+                throw new NoSuchElementException();
+            return slot(page(this.currentPage), this.current);
+        }
+
+        private void check() {
+            ensureOpen();
+            if (OffHeapBPlusTree.this.modCount != this.expectedModCount)
+                throw new ConcurrentModificationException();
+        }
+
+        public byte[] key() {
+            long s = currentSlot();
+            byte[] b = new byte[keyLength(s)];
+            UNSAFE.copyMemory(null, s + 2, b, BYTE_ARRAY_BASE, b.length);
+            return b;
+        }
+
+        /** @return The current key, decoded as encoded by {@link OffHeapBPlusTree#key(long)} */
+        public long longKey() {
+            long s = currentSlot();
+            if (keyLength(s) != 8)
+                throw new IllegalStateException("Not a long key");
+            long v = UNSAFE.getLong(s + 2);
+            return (LITTLE_ENDIAN ? Long.reverseBytes(v) : v) ^ Long.MIN_VALUE;
+        }
+
+        public long value() {
+            return payload(currentSlot());
+        }
+
+        /** Replaces the value of the current entry */
+        public void setValue(long value) {
+            UNSAFE.putLong(currentSlot() + 2 + maxKeyLength, value);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage.UNSAFE;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Stores byte strings of any length one after the other, in an
+ * {@link OffHeapMemoryStorage}.
+ * <p>
+ * Every string added is identified by its offset in the arena, which stays
+ * valid until the arena is cleared. Each string is preceded by its length, so
+ * a string is read, compared or hashed without any object of its own. A full
+ * arena copies its strings into a storage twice as large.
+ * <p>
+ * Strings cannot be removed one by one. This class is not safe for concurrent
+ * use.
+ */
+public final class OffHeapByteStringArena implements AutoCloseable {
+    public static final long DEFAULT_CAPACITY = 4096;
+    private static final long BYTE_ARRAY_BASE = UNSAFE.arrayBaseOffset(byte[].class);
+    private OffHeapMemoryStorage storage;
+    private long addr;
+    /** Offset of the end of the last string */
+    private long end = 0L;
+    private long count = 0L;
+    private volatile boolean closed = false;
+
+    public OffHeapByteStringArena() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** @param capacity The amount of bytes the arena holds without growing */
+    public OffHeapByteStringArena(long capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Illegal Capacity");
+        this.storage = new OffHeapMemoryStorage(capacity, true);
+        this.addr = this.storage.baseAddr;
+    }
+
+    /** @return The offset of the string */
+    public long add(byte[] b) {
+        if (b == null)
+            throw new NullPointerException();
+        return add(b, 0, b.length);
+    }
+
+    /** @return The offset of the string */
+    public long add(byte[] b, int off, int len) {
+        ensureOpen();
+        if (b == null)
+            throw new NullPointerException();
+        if (off < 0 || len < 0 || len > b.length - off)
+            throw new IndexOutOfBoundsException();
+        long start = this.end;
+        long n = 4L + len;
+        if (start + n > this.storage.size)
+            grow(start + n);
+        UNSAFE.putInt(this.addr + start, len);
+        UNSAFE.copyMemory(b, BYTE_ARRAY_BASE + off, null, this.addr + start + 4, len);
+        this.end = start + n;
+        this.count++;
+        return start;
+    }
+
+    /** Adds the UTF-8 encoding of the string */
+    public long add(String s) {
+        if (s == null)
+            throw new NullPointerException();
+        return add(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void grow(long needed) {
+        long capacity = Math.max(needed, Math.multiplyExact(this.storage.size, 2L));
+        OffHeapMemoryStorage old = this.storage;
+        OffHeapMemoryStorage s = new OffHeapMemoryStorage(capacity, true);
+        if (this.end > 0L)
+            old.copyTo(s, 0L, 0L, this.end);
+        this.storage = s;
+        this.addr = s.baseAddr;
+        old.close();
+    }
+
+    /** @return The address of the bytes of the string */
+    private long check(long offset) {
+        ensureOpen();
+        if (offset < 0 || offset > this.end - 4)
+            throw new IndexOutOfBoundsException("Illegal Offset: " + offset);
+        int len = UNSAFE.getInt(this.addr + offset);
+        if (len < 0 || offset + 4 + len > this.end)
+            throw new IndexOutOfBoundsException("Illegal Offset: " + offset);
+        return this.addr + offset + 4;
+    }
+
+    public int length(long offset) {
+        return UNSAFE.getInt(check(offset) - 4);
+    }
+
+    public byte[] get(long offset) {
+        long a = check(offset);
+        byte[] b = new byte[UNSAFE.getInt(a - 4)];
+        UNSAFE.copyMemory(null, a, b, BYTE_ARRAY_BASE, b.length);
+        return b;
+    }
+
+    /**
+     * Copies the bytes of a string into an array
+     *
+     * @return The amount of bytes copied, which is the length of the string
+     */
+    public int get(long offset, byte[] dst, int off) {
+        long a = check(offset);
+        if (dst == null)
+            throw new NullPointerException();
+        int len = UNSAFE.getInt(a - 4);
+        if (off < 0 || off > dst.length - len)
+            throw new IndexOutOfBoundsException();
+        UNSAFE.copyMemory(null, a, dst, BYTE_ARRAY_BASE + off, len);
+        return len;
+    }
+
+    /** Decodes a string added by {@link #add(String)} */
+    public String getString(long offset) {
+        return new String(get(offset), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares two strings of the arena as unsigned bytes, in lexicographic
+     * order
+     */
+    public int compare(long offset, long other) {
+        long a = check(offset);
+        long b = check(other);
+        return OffHeapMemoryBulkOps.compare(null, a, UNSAFE.getInt(a - 4), null, b, UNSAFE.getInt(b - 4));
+    }
+
+    /** Compares a string of the arena to a byte array, as unsigned bytes */
+    public int compare(long offset, byte[] b) {
+        long a = check(offset);
+        if (b == null)
+            throw new NullPointerException();
+        return OffHeapMemoryBulkOps.compare(null, a, UNSAFE.getInt(a - 4), b, BYTE_ARRAY_BASE, b.length);
+    }
+
+    public boolean equals(long offset, byte[] b) {
+        long a = check(offset);
+        if (b == null)
+            throw new NullPointerException();
+        return UNSAFE.getInt(a - 4) == b.length
+                && OffHeapMemoryBulkOps.compare(null, a, b.length, b, BYTE_ARRAY_BASE, b.length) == 0;
+    }
+
+    /** @return The hash of a string, equal to {@link java.util.Arrays#hashCode(byte[])} of its bytes */
+    public int hashCode(long offset) {
+        long a = check(offset);
+        int len = UNSAFE.getInt(a - 4);
+        int h = 1;
+        for (int i = 0; i < len; i++)
+            h = 31 * h + UNSAFE.getByte(a + i);
+        return h;
+    }
+
+    /** @return The amount of strings added */
+    public long count() {
+        return this.count;
+    }
+
+    /** @return The amount of bytes used by the strings and their lengths */
+    public long getUsedBytes() {
+        return this.end;
+    }
+
+    /** @return The amount of native memory held by the arena */
+    public long getReservedBytes() {
+        return this.storage.size;
+    }
+
+    /** Removes every string, keeping the memory allocated */
+    public void clear() {
+        ensureOpen();
+        this.end = 0L;
+        this.count = 0L;
+    }
+
+    private void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("Closed OffHeapByteStringArena");
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        this.closed = true;
+        this.storage.close();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage.UNSAFE;
+
+/** A growable list of <code>long</code> values, stored off-heap */
+public final class OffHeapLongList extends OffHeapPrimitiveList {
+    public OffHeapLongList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OffHeapLongList(long initialCapacity) {
+        super(8, initialCapacity);
+    }
+
+    public void add(long value) {
+        UNSAFE.putLong(append(), value);
+    }
+
+    public void addAll(long[] values) {
+        if (values == null)
+            throw new NullPointerException();
+        appendAll(values, values.length, 0, values.length);
+    }
+
+    public void addAll(long[] values, int off, int len) {
+        if (values == null)
+            throw new NullPointerException();
+        appendAll(values, values.length, off, len);
+    }
+
+    public long get(long index) {
+        return UNSAFE.getLong(address(index));
+    }
+
+    public void set(long index, long value) {
+        UNSAFE.putLong(address(index), value);
+    }
+
+    /** @return The last element, which is removed */
+    public long removeLast() {
+        return UNSAFE.getLong(removeLast0());
+    }
+
+    /** Copies <code>len</code> elements, starting at <code>index</code>, into the array */
+    public void get(long index, long[] dst, int off, int len) {
+        if (dst == null)
+            throw new NullPointerException();
+        copy(index, dst, dst.length, off, len, false);
+    }
+
+    /** Replaces <code>len</code> elements, starting at <code>index</code>, with the ones of the array */
+    public void set(long index, long[] src, int off, int len) {
+        if (src == null)
+            throw new NullPointerException();
+        copy(index, src, src.length, off, len, true);
+    }
+
+    public long[] toArray() {
+        long[] arr = new long[arrayLength()];
+        copy(0L, arr, arr.length, 0, arr.length, false);
+        return arr;
+    }
+}
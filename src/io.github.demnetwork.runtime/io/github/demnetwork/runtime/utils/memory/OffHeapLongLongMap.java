@@ -0,0 +1,460 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage.UNSAFE;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A map from <code>long</code> keys to <code>long</code> values, stored in an
+ * {@link OffHeapMemoryStorage}.
+ * <p>
+ * Entries live in an open-addressing table with linear probing. Every slot
+ * holds a key next to its value, so no entry needs an object of its own and a
+ * lookup usually touches a single cache line. The key <code>0</code> marks
+ * free slots, so its entry is kept in the header instead. Removals shift the
+ * following entries back instead of leaving tombstones. The table is rehashed
+ * into a storage twice as large once it is three quarters full.
+ * <p>
+ * Maps opened with {@link #open(File, long)} live in a file mapped in memory,
+ * and keep their entries across runs. This class is not safe for concurrent
+ * use.
+ * <p>
+ * Layout of the storage, in native byte order:
+ *
+ * <pre>
+ * header: magic(8) capacity(8) size(8) zeroValue(8) hasZero(1) littleEndian(1) padding(30)
+ * slots:  (key(8) value(8)) * capacity
+ * </pre>
+ */
+public sealed class OffHeapLongLongMap implements AutoCloseable permits OffHeapLongLongMap.Mapped {
+    public static final long MAGIC = 0x52554D4C4C4D4150L; // "RUMLLMAP"
+    static final long HEADER_SIZE = 64;
+    private static final long CAPACITY_OFFSET = 8;
+    private static final long SIZE_OFFSET = 16;
+    private static final long ZERO_VALUE_OFFSET = 24;
+    private static final long HAS_ZERO_OFFSET = 32;
+    private static final long ORDER_OFFSET = 33;
+    private static final long MIN_CAPACITY = 16;
+    private static final byte LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? (byte) 1
+            : (byte) 0;
+    protected OffHeapMemoryStorage storage;
+    /** Address of the first slot */
+    private long slots;
+    private long mask;
+    /** Amount of entries, including the one of the key 0 */
+    private long size;
+    private long threshold;
+    private boolean hasZero;
+    private long zeroValue;
+    protected volatile boolean closed = false;
+
+    public OffHeapLongLongMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /** @param expectedSize The amount of entries the map holds without growing */
+    public OffHeapLongLongMap(long expectedSize) {
+        this(new OffHeapMemoryStorage(HEADER_SIZE + (capacityFor(expectedSize) << 4), true));
+        init(capacityFor(expectedSize));
+    }
+
+    /** Uses a storage that already holds a map, or that {@link #init(long)} fills */
+    private OffHeapLongLongMap(OffHeapMemoryStorage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Opens a map stored in a file, creating it if the file does not exist or
+     * is empty
+     *
+     * @param file         The file holding the map
+     * @param expectedSize The amount of entries a new map holds without growing
+     * @return The map, whose changes are written to the file
+     * @throws IOException If the file could not be mapped, or does not hold a
+     *                     valid map
+     */
+    public static OffHeapLongLongMap open(File file, long expectedSize) throws IOException {
+        if (file == null)
+            throw new NullPointerException();
+        if (file.exists() && file.length() > 0L) {
+            long len = file.length();
+            if (len < HEADER_SIZE)
+                throw new IOException("Not a map file");
+            Mapped m = new Mapped(file, new FileMappedOffHeapMemoryStorage(file, len));
+            try {
+                ((OffHeapLongLongMap) m).load();
+            } catch (IOException e) {
+                m.storage.close();
+                throw e;
+            }
+            return m;
+        }
+        long cap = capacityFor(expectedSize);
+        Mapped m = new Mapped(file, new FileMappedOffHeapMemoryStorage(file, HEADER_SIZE + (cap << 4)));
+        ((OffHeapLongLongMap) m).init(cap);
+        return m;
+    }
+
+    private static long capacityFor(long expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Negative size");
+        long needed = expectedSize + expectedSize / 3 + 1; // Load factor of 3/4
+        if (needed > (1L << 58))
+            throw new IllegalArgumentException("Too many entries");
+        return Math.max(MIN_CAPACITY, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    /** Writes the header of an empty map with a capacity */
+    private void init(long capacity) {
+        long a = this.storage.baseAddr;
+        UNSAFE.putLong(a, MAGIC);
+        UNSAFE.putLong(a + CAPACITY_OFFSET, capacity);
+        UNSAFE.putByte(a + ORDER_OFFSET, LITTLE_ENDIAN);
+        attach(capacity);
+        this.size = 0L;
+        this.hasZero = false;
+        this.zeroValue = 0L;
+        syncHeader();
+    }
+
+    /** Reads the header of the map in the storage */
+    private void load() throws IOException {
+        long a = this.storage.baseAddr;
+        if (UNSAFE.getLong(a) != MAGIC)
+            throw new IOException("Not a map file");
+        if (UNSAFE.getByte(a + ORDER_OFFSET) != LITTLE_ENDIAN)
+            throw new IOException("The map was written with another byte order");
+        long capacity = UNSAFE.getLong(a + CAPACITY_OFFSET);
+        if (capacity < MIN_CAPACITY || Long.bitCount(capacity) != 1
+                || HEADER_SIZE + (capacity << 4) != this.storage.size)
+            throw new IOException("Corrupt map header");
+        attach(capacity);
+        this.size = UNSAFE.getLong(a + SIZE_OFFSET);
+        this.zeroValue = UNSAFE.getLong(a + ZERO_VALUE_OFFSET);
+        this.hasZero = UNSAFE.getByte(a + HAS_ZERO_OFFSET) != 0;
+    }
+
+    private void attach(long capacity) {
+        this.slots = this.storage.baseAddr + HEADER_SIZE;
+        this.mask = capacity - 1;
+        this.threshold = capacity - (capacity >>> 2);
+    }
+
+    private void syncHeader() {
+        long a = this.storage.baseAddr;
+        UNSAFE.putLong(a + SIZE_OFFSET, this.size);
+        UNSAFE.putLong(a + ZERO_VALUE_OFFSET, this.zeroValue);
+        UNSAFE.putByte(a + HAS_ZERO_OFFSET, this.hasZero ? (byte) 1 : (byte) 0);
+    }
+
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        return k ^ (k >>> 33);
+    }
+
+    /** @return The address of the slot of the key, or of the free slot it goes to */
+    private long find(long key) {
+        long i = mix(key) & this.mask;
+        for (;;) {
+            long a = this.slots + (i << 4);
+            long k = UNSAFE.getLong(a);
+            if (k == key || k == 0L)
+                return a;
+            i = (i + 1) & this.mask;
+        }
+    }
+
+    public long getOrDefault(long key, long defaultValue) {
+        ensureOpen();
+        if (key == 0L)
+            return this.hasZero ? this.zeroValue : defaultValue;
+        long a = find(key);
+        return UNSAFE.getLong(a) == 0L ? defaultValue : UNSAFE.getLong(a + 8);
+    }
+
+    public boolean containsKey(long key) {
+        ensureOpen();
+        if (key == 0L)
+            return this.hasZero;
+        return UNSAFE.getLong(find(key)) != 0L;
+    }
+
+    /** @return <code>true</code> if the key was added, <code>false</code> if its value was replaced */
+    public boolean put(long key, long value) throws IOException {
+        ensureOpen();
+        if (key == 0L) {
+            boolean added = !this.hasZero;
+            this.hasZero = true;
+            this.zeroValue = value;
+            if (added)
+                this.size++;
+            syncHeader();
+            return added;
+        }
+        long a = find(key);
+        if (UNSAFE.getLong(a) != 0L) {
+            UNSAFE.putLong(a + 8, value);
+            return false;
+        }
+        insert(a, key, value);
+        return true;
+    }
+
+    /**
+     * Adds a value to the value of a key, keys without a value start at 0
+     *
+     * @return The new value
+     */
+    public long addTo(long key, long delta) throws IOException {
+        ensureOpen();
+        if (key == 0L) {
+            long v = (this.hasZero ? this.zeroValue : 0L) + delta;
+            put(0L, v);
+            return v;
+        }
+        long a = find(key);
+        if (UNSAFE.getLong(a) != 0L) {
+            long v = UNSAFE.getLong(a + 8) + delta;
+            UNSAFE.putLong(a + 8, v);
+            return v;
+        }
+        insert(a, key, delta);
+        return delta;
+    }
+
+    private void insert(long a, long key, long value) throws IOException {
+        UNSAFE.putLong(a, key);
+        UNSAFE.putLong(a + 8, value);
+        this.size++;
+        UNSAFE.putLong(this.storage.baseAddr + SIZE_OFFSET, this.size);
+        if (this.size - (this.hasZero ? 1 : 0) > this.threshold)
+            grow();
+    }
+
+    /** @return <code>true</code> if the key was removed */
+    public boolean remove(long key) {
+        ensureOpen();
+        if (key == 0L) {
+            if (!this.hasZero)
+                return false;
+            this.hasZero = false;
+            this.zeroValue = 0L;
+            this.size--;
+            syncHeader();
+            return true;
+        }
+        long hole = find(key);
+        if (UNSAFE.getLong(hole) == 0L)
+            return false;
+        // Shifts back the entries that can no longer be reached past the hole
+        long i = (hole - this.slots) >>> 4;
+        long j = i;
+        for (;;) {
+            j = (j + 1) & this.mask;
+            long a = this.slots + (j << 4);
+            long k = UNSAFE.getLong(a);
+            if (k == 0L)
+                break;
+            long home = mix(k) & this.mask;
+            boolean reachable = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!reachable) {
+                UNSAFE.putLong(hole, k);
+                UNSAFE.putLong(hole + 8, UNSAFE.getLong(a + 8));
+                hole = a;
+                i = j;
+            }
+        }
+        UNSAFE.putLong(hole, 0L);
+        UNSAFE.putLong(hole + 8, 0L);
+        this.size--;
+        UNSAFE.putLong(this.storage.baseAddr + SIZE_OFFSET, this.size);
+        return true;
+    }
+
+    public long size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0L;
+    }
+
+    /** @return The amount of slots of the table */
+    public long capacity() {
+        return this.mask + 1;
+    }
+
+    /** Removes every entry, keeping the capacity */
+    public void clear() {
+        ensureOpen();
+        this.storage.fill((byte) 0);
+        init(this.mask + 1);
+    }
+
+    /**
+     * Calls the action for every entry, in no particular order. The action may
+     * replace the values of existing keys, but not add or remove keys.
+     */
+    public void forEach(EntryConsumer action) {
+        ensureOpen();
+        if (action == null)
+            throw new NullPointerException();
+        if (this.hasZero)
+            action.accept(0L, this.zeroValue);
+        long end = this.slots + ((this.mask + 1) << 4);
+        for (long a = this.slots; a < end; a += 16) {
+            long k = UNSAFE.getLong(a);
+            if (k != 0L)
+                action.accept(k, UNSAFE.getLong(a + 8));
+        }
+    }
+
+    public static abstract interface EntryConsumer {
+        public abstract void accept(long key, long value);
+    }
+
+    private void grow() throws IOException {
+        long capacity = (this.mask + 1) << 1;
+        OffHeapMemoryStorage old = this.storage;
+        long oldSlots = this.slots;
+        long oldEnd = oldSlots + ((this.mask + 1) << 4);
+        OffHeapMemoryStorage grown = allocate(HEADER_SIZE + (capacity << 4));
+        this.storage = grown;
+        UNSAFE.copyMemory(old.baseAddr, grown.baseAddr, HEADER_SIZE);
+        UNSAFE.putLong(grown.baseAddr + CAPACITY_OFFSET, capacity);
+        attach(capacity);
+        for (long a = oldSlots; a < oldEnd; a += 16) {
+            long k = UNSAFE.getLong(a);
+            if (k != 0L) {
+                long b = find(k);
+                UNSAFE.putLong(b, k);
+                UNSAFE.putLong(b + 8, UNSAFE.getLong(a + 8));
+            }
+        }
+        try {
+            this.storage = replace(old, grown);
+        } catch (IOException | RuntimeException e) {
+            // The storages may be unmapped already, so the map cannot be used
+            this.closed = true;
+            grown.close();
+            old.close();
+            throw e;
+        }
+        attach(capacity);
+    }
+
+    /** Allocates the storage the table grows into */
+    OffHeapMemoryStorage allocate(long bytes) throws IOException {
+        return new OffHeapMemoryStorage(bytes, true);
+    }
+
+    /**
+     * Releases the storage of the table once it was rehashed into a larger one
+     *
+     * @return The storage to use from now on
+     */
+    OffHeapMemoryStorage replace(OffHeapMemoryStorage old, OffHeapMemoryStorage grown) throws IOException {
+        old.close();
+        return grown;
+    }
+
+    /** Writes the changes of a map stored in a file, does nothing otherwise */
+    public void flush() throws IOException {
+        ensureOpen();
+    }
+
+    protected void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("Closed OffHeapLongLongMap");
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        this.closed = true;
+        this.storage.close();
+    }
+
+    /**
+     * A map stored in a file. It grows into a new file, which then atomically
+     * replaces the old one, so the file always holds a complete map.
+     */
+    static final class Mapped extends OffHeapLongLongMap {
+        private final File file;
+
+        private Mapped(File file, FileMappedOffHeapMemoryStorage storage) {
+            super(storage);
+            this.file = file;
+        }
+
+        private File growFile() {
+            return new File(this.file.getPath() + ".grow");
+        }
+
+        @Override
+        OffHeapMemoryStorage allocate(long bytes) throws IOException {
+            File f = growFile();
+            Files.deleteIfExists(f.toPath());
+            return new FileMappedOffHeapMemoryStorage(f, bytes);
+        }
+
+        @Override
+        OffHeapMemoryStorage replace(OffHeapMemoryStorage old, OffHeapMemoryStorage grown) throws IOException {
+            long size = grown.size;
+            ((FileMappedOffHeapMemoryStorage) grown).force();
+            grown.close();
+            old.close();
+            Files.move(growFile().toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return new FileMappedOffHeapMemoryStorage(this.file, size);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            ensureOpen();
+            ((FileMappedOffHeapMemoryStorage) this.storage).force();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed)
+                return;
+            ((FileMappedOffHeapMemoryStorage) this.storage).force();
+            super.close();
+        }
+    }
+}
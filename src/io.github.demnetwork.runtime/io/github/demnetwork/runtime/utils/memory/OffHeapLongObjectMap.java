@@ -0,0 +1,222 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage.UNSAFE;
+import java.io.EOFException;
+import java.io.IOException;
+import io.github.demnetwork.runtime.utils.memory.serial.MemorySerializable;
+
+/**
+ * A map from <code>long</code> keys to {@link MemorySerializable} values,
+ * stored off-heap.
+ * <p>
+ * Values are encoded one after the other in a log, and an
+ * {@link OffHeapLongLongMap} maps every key to the offset of its value. Values
+ * are decoded again by every {@link #get(long)}, so the objects returned are
+ * copies. Replaced and removed values stay in the log until it is full, and
+ * the log is then compacted, or grown if most of it is still in use.
+ * <p>
+ * This class is not safe for concurrent use.
+ */
+public final class OffHeapLongObjectMap<V extends MemorySerializable> implements AutoCloseable {
+    private static final long MIN_LOG_SIZE = 4096;
+    private final OffHeapLongLongMap index;
+    private OffHeapMemoryStorage log;
+    private OffHeapMemoryOutputStream out;
+    private OffHeapMemoryInputStream in;
+    /** Offset of the end of the last value in the log */
+    private long end = 0L;
+    /** Bytes of the log used by values that were replaced or removed */
+    private long garbage = 0L;
+    private volatile boolean closed = false;
+
+    public OffHeapLongObjectMap() {
+        this(16L, MIN_LOG_SIZE);
+    }
+
+    /**
+     * @param expectedSize The amount of entries the index holds without growing
+     * @param logSize      The initial size of the log of values, in bytes
+     */
+    public OffHeapLongObjectMap(long expectedSize, long logSize) {
+        this.index = new OffHeapLongLongMap(expectedSize);
+        try {
+            attach(new OffHeapMemoryStorage(Math.max(MIN_LOG_SIZE, logSize), false));
+        } catch (RuntimeException e) {
+            try {
+                this.index.close();
+            } catch (IOException e2) {
+                e.addSuppressed(e2);
+            }
+            throw e;
+        }
+    }
+
+    private void attach(OffHeapMemoryStorage log) {
+        this.log = log;
+        this.out = new OffHeapMemoryOutputStream(log, false);
+        this.in = new OffHeapMemoryInputStream(log, false);
+    }
+
+    /** @return A copy of the value of the key, or <code>null</code> if there is none */
+    @SuppressWarnings("unchecked")
+    public V get(long key) throws IOException {
+        ensureOpen();
+        long off = this.index.getOrDefault(key, -1L);
+        if (off < 0L)
+            return null;
+        this.in.setOffset(off + 4);
+        try {
+            return (V) this.in.readObj();
+        } catch (InstantiationException e) {
+            throw new IOException("Failed to decode the value of " + key, e);
+        }
+    }
+
+    public boolean containsKey(long key) {
+        ensureOpen();
+        return this.index.containsKey(key);
+    }
+
+    /** @return <code>true</code> if the key was added, <code>false</code> if its value was replaced */
+    public boolean put(long key, V value) throws IOException {
+        ensureOpen();
+        if (value == null)
+            throw new NullPointerException("Null value");
+        long off;
+        for (;;) {
+            try {
+                off = append(value);
+                break;
+            } catch (EOFException e) {
+                growLog();
+            }
+        }
+        long old = this.index.getOrDefault(key, -1L);
+        if (old >= 0L)
+            this.garbage += recordSize(old);
+        return this.index.put(key, off);
+    }
+
+    /** @return <code>true</code> if the key was removed */
+    public boolean remove(long key) throws IOException {
+        ensureOpen();
+        long old = this.index.getOrDefault(key, -1L);
+        if (old < 0L)
+            return false;
+        this.garbage += recordSize(old);
+        return this.index.remove(key);
+    }
+
+    /** Writes a record made of the length of the value and the value */
+    private long append(V value) throws IOException {
+        long start = this.end;
+        if (start + 4 > this.log.size)
+            throw new EOFException("Not enough space in OffHeapMemoryStorage");
+        this.out.setOffset(start + 4);
+        this.out.writeObj(value);
+        long len = this.out.getOffset() - start - 4;
+        if (len > Integer.MAX_VALUE)
+            throw new IOException("Value too large");
+        UNSAFE.putInt(this.log.baseAddr + start, (int) len);
+        this.end = this.out.getOffset();
+        return start;
+    }
+
+    private long recordSize(long off) {
+        return 4L + UNSAFE.getInt(this.log.baseAddr + off);
+    }
+
+    /**
+     * Moves the values in use to a new log, twice as large as the current one
+     * unless at least half of it is garbage
+     */
+    private void growLog() throws IOException {
+        long size = this.log.size;
+        if (this.garbage * 2 < size)
+            size = Math.multiplyExact(size, 2L);
+        OffHeapMemoryStorage grown = new OffHeapMemoryStorage(size, false);
+        final long src = this.log.baseAddr;
+        final long dst = grown.baseAddr;
+        final long[] pos = new long[1];
+        this.index.forEach(new OffHeapLongLongMap.EntryConsumer() {
+            @Override
+            public void accept(long key, long value) {
+                long n = 4L + UNSAFE.getInt(src + value);
+                UNSAFE.copyMemory(src + value, dst + pos[0], n);
+                try {
+                    OffHeapLongObjectMap.this.index.put(key, pos[0]);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e); // Replacing a value never grows the index
+                }
+                pos[0] += n;
+            }
+        });
+        OffHeapMemoryStorage old = this.log;
+        attach(grown);
+        old.close();
+        this.end = pos[0];
+        this.garbage = 0L;
+    }
+
+    public long size() {
+        return this.index.size();
+    }
+
+    public boolean isEmpty() {
+        return this.index.isEmpty();
+    }
+
+    /** Removes every entry, keeping the memory of the index and of the log */
+    public void clear() throws IOException {
+        ensureOpen();
+        this.index.clear();
+        this.end = 0L;
+        this.garbage = 0L;
+    }
+
+    /** @return The amount of native memory held by the log of values */
+    public long getLogSize() {
+        return this.log.size;
+    }
+
+    private void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("Closed OffHeapLongObjectMap");
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        this.closed = true;
+        this.log.close();
+        this.index.close();
+    }
+}
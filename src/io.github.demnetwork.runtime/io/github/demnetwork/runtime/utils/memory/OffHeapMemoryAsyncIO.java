@@ -0,0 +1,163 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import io.github.demnetwork.runtime.internal.MeIDontLikeLambdas;
+
+/**
+ * Backend of {@link OffHeapMemoryStorage#readFromAsync(Path, long, long, long)}
+ * and {@link OffHeapMemoryStorage#writeToAsync(Path, long, long, long)}.
+ * <p>
+ * Transfers are split in chunks of {@link #CHUNK_SIZE} bytes, because a
+ * {@link ByteBuffer} cannot be larger than {@link Integer#MAX_VALUE} bytes. All
+ * chunks are issued at once, so the OS may serve them concurrently.
+ */
+@MeIDontLikeLambdas
+final class OffHeapMemoryAsyncIO {
+    static final int CHUNK_SIZE = 1 << 30;
+
+    private OffHeapMemoryAsyncIO() {
+    }
+
+    static CompletableFuture<Long> transfer(OffHeapMemoryStorage storage, Path p, long fileOff, long memOff,
+            long len, boolean write) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        if (len == 0) {
+            result.complete(Long.valueOf(0L));
+            return result;
+        }
+        final AsynchronousFileChannel ch;
+        try {
+            ch = write
+                    ? AsynchronousFileChannel.open(p,
+                            new OpenOption[] { StandardOpenOption.WRITE, StandardOpenOption.CREATE })
+                    : AsynchronousFileChannel.open(p, StandardOpenOption.READ);
+        } catch (IOException | RuntimeException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        int chunks = (int) ((len + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        Batch batch = new Batch(ch, result, chunks);
+        for (int i = 0; i < chunks; i++) {
+            long off = (long) i * CHUNK_SIZE;
+            int clen = (int) Math.min(CHUNK_SIZE, len - off);
+            new Chunk(storage, batch, storage.asByteBuffer(memOff + off, clen), fileOff + off, write).issue();
+        }
+        return result;
+    }
+
+    private static final class Batch {
+        private final AsynchronousFileChannel ch;
+        private final CompletableFuture<Long> result;
+        private final AtomicInteger pending;
+        private final AtomicLong transferred = new AtomicLong();
+        private volatile Throwable failure = null;
+
+        private Batch(AsynchronousFileChannel ch, CompletableFuture<Long> result, int chunks) {
+            this.ch = ch;
+            this.result = result;
+            this.pending = new AtomicInteger(chunks);
+        }
+
+        private void done(long bytes, Throwable t) {
+            transferred.addAndGet(bytes);
+            if (t != null)
+                this.failure = t;
+            if (pending.decrementAndGet() != 0)
+                return;
+            try {
+                ch.close();
+            } catch (IOException e) {
+                if (this.failure == null)
+                    this.failure = e;
+            }
+            if (this.failure != null) {
+                result.completeExceptionally(this.failure);
+            } else {
+                result.complete(Long.valueOf(transferred.get()));
+            }
+        }
+    }
+
+    private static final class Chunk implements CompletionHandler<Integer, Void> {
+        @SuppressWarnings("unused")
+        private final OffHeapMemoryStorage storage; // Keeps the storage reachable while the I/O is in flight
+        private final Batch batch;
+        private final ByteBuffer buf;
+        private final boolean write;
+        private long pos;
+        private long done = 0;
+
+        private Chunk(OffHeapMemoryStorage storage, Batch batch, ByteBuffer buf, long pos, boolean write) {
+            this.storage = storage;
+            this.batch = batch;
+            this.buf = buf;
+            this.pos = pos;
+            this.write = write;
+        }
+
+        private void issue() {
+            try {
+                if (write) {
+                    batch.ch.write(buf, pos, null, this);
+                } else {
+                    batch.ch.read(buf, pos, null, this);
+                }
+            } catch (RuntimeException e) {
+                batch.done(done, e);
+            }
+        }
+
+        @Override
+        public void completed(Integer r, Void attachment) {
+            int n = r.intValue();
+            if (n == -1) { // EOF, the file is shorter than requested
+                batch.done(done, null);
+                return;
+            }
+            done += n;
+            pos += n;
+            if (buf.hasRemaining()) {
+                issue();
+            } else {
+                batch.done(done, null);
+            }
+        }
+
+        @Override
+        public void failed(Throwable t, Void attachment) {
+            batch.done(done, t);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage.UNSAFE;
+import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import io.github.demnetwork.runtime.internal.MeIDontLikeLambdas;
+
+/**
+ * Bulk fill, copy and compare operations over raw addresses, used by
+ * {@link OffHeapMemoryStorage}.
+ * <p>
+ * The parallel variants split the region in chunks whose boundaries are
+ * aligned to the page size, so two workers never touch the same page.
+ */
+@MeIDontLikeLambdas
+final class OffHeapMemoryBulkOps {
+    static final long PAGE_SIZE = UNSAFE.pageSize();
+    /** Regions smaller than this are never split */
+    static final long PARALLEL_THRESHOLD = 16L << 20;
+    private static final long CHUNK_SIZE = Math.max(PAGE_SIZE, 4L << 20);
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    private OffHeapMemoryBulkOps() {
+    }
+
+    /** @return The split point of the region, aligned to a page boundary */
+    private static long split(long addr, long len) {
+        long mid = addr + len / 2;
+        mid = (mid + PAGE_SIZE - 1) & -PAGE_SIZE;
+        return mid - addr;
+    }
+
+    static long mismatch(long a, long b, long len) {
+        long i = 0;
+        for (; i + 8 <= len; i += 8) {
+            long x = UNSAFE.getLong(a + i) ^ UNSAFE.getLong(b + i);
+            if (x != 0L)
+                return i + ((LITTLE_ENDIAN ? Long.numberOfTrailingZeros(x) : Long.numberOfLeadingZeros(x)) >>> 3);
+        }
+        for (; i < len; i++)
+            if (UNSAFE.getByte(a + i) != UNSAFE.getByte(b + i))
+                return i;
+        return -1L;
+    }
+
+    /**
+     * Compares two regions as unsigned bytes, in lexicographic order, so a
+     * region sorts before the longer regions it is a prefix of. A region is
+     * on-heap when its base is not <code>null</code>.
+     */
+    static int compare(Object aBase, long a, long aLen, Object bBase, long b, long bLen) {
+        long len = Math.min(aLen, bLen);
+        long i = 0;
+        for (; i + 8 <= len; i += 8) {
+            long x = UNSAFE.getLong(aBase, a + i);
+            long y = UNSAFE.getLong(bBase, b + i);
+            if (x != y)
+                return LITTLE_ENDIAN ? Long.compareUnsigned(Long.reverseBytes(x), Long.reverseBytes(y))
+                        : Long.compareUnsigned(x, y);
+        }
+        for (; i < len; i++) {
+            int d = (UNSAFE.getByte(aBase, a + i) & 0xFF) - (UNSAFE.getByte(bBase, b + i) & 0xFF);
+            if (d != 0)
+                return d;
+        }
+        return Long.compare(aLen, bLen);
+    }
+
+    static void fill(ForkJoinPool pool, long addr, long len, byte value) {
+        if (pool == null || len < PARALLEL_THRESHOLD) {
+            UNSAFE.setMemory(addr, len, value);
+            return;
+        }
+        pool.invoke(new FillTask(addr, len, value));
+    }
+
+    static void copy(ForkJoinPool pool, long src, long dst, long len) {
+        // Overlapping regions must be copied by a single memmove
+        boolean overlaps = src < dst + len && dst < src + len;
+        if (pool == null || len < PARALLEL_THRESHOLD || overlaps) {
+            UNSAFE.copyMemory(src, dst, len);
+            return;
+        }
+        pool.invoke(new CopyTask(src, dst, len));
+    }
+
+    static long mismatch(ForkJoinPool pool, long a, long b, long len) {
+        if (pool == null || len < PARALLEL_THRESHOLD)
+            return mismatch(a, b, len);
+        return pool.invoke(new MismatchTask(a, b, len)).longValue();
+    }
+
+    @SuppressWarnings("serial") // Tasks are never serialized
+    private static final class FillTask extends RecursiveAction {
+        private final long addr;
+        private final long len;
+        private final byte value;
+
+        private FillTask(long addr, long len, byte value) {
+            this.addr = addr;
+            this.len = len;
+            this.value = value;
+        }
+
+        @Override
+        protected void compute() {
+            long s = split(addr, len);
+            if (len <= CHUNK_SIZE || s <= 0 || s >= len) {
+                UNSAFE.setMemory(addr, len, value);
+                return;
+            }
+            invokeAll(new FillTask(addr, s, value), new FillTask(addr + s, len - s, value));
+        }
+    }
+
+    @SuppressWarnings("serial") // Tasks are never serialized
+    private static final class CopyTask extends RecursiveAction {
+        private final long src;
+        private final long dst;
+        private final long len;
+
+        private CopyTask(long src, long dst, long len) {
+            this.src = src;
+            this.dst = dst;
+            this.len = len;
+        }
+
+        @Override
+        protected void compute() {
+            long s = split(dst, len);
+            if (len <= CHUNK_SIZE || s <= 0 || s >= len) {
+                UNSAFE.copyMemory(src, dst, len);
+                return;
+            }
+            invokeAll(new CopyTask(src, dst, s), new CopyTask(src + s, dst + s, len - s));
+        }
+    }
+
+    @SuppressWarnings("serial") // Tasks are never serialized
+    private static final class MismatchTask extends RecursiveTask<Long> {
+        private final long a;
+        private final long b;
+        private final long len;
+
+        private MismatchTask(long a, long b, long len) {
+            this.a = a;
+            this.b = b;
+            this.len = len;
+        }
+
+        @Override
+        protected Long compute() {
+            long s = split(a, len);
+            if (len <= CHUNK_SIZE || s <= 0 || s >= len)
+                return Long.valueOf(mismatch(a, b, len));
+            MismatchTask right = new MismatchTask(a + s, b + s, len - s);
+            right.fork();
+            long l = new MismatchTask(a, b, s).compute().longValue();
+            if (l != -1L) {
+                right.cancel(false);
+                return Long.valueOf(l);
+            }
+            long r = right.join().longValue();
+            return Long.valueOf(r == -1L ? -1L : s + r);
+        }
+    }
+}
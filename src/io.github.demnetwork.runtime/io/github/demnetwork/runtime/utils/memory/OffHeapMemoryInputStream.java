@@ -23,12 +23,18 @@
 
 package io.github.demnetwork.runtime.utils.memory;
 
+import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryOutputStream.BIG_ENDIAN;
 import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage.UNSAFE;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import io.github.demnetwork.runtime.internal.secret.ByteSwapper;
+import io.github.demnetwork.runtime.utils.memory.serial.ChannelMemoryOutputStream;
 import io.github.demnetwork.runtime.utils.memory.serial.MemoryInputStream;
+import sun.misc.Unsafe;
 
 public final class OffHeapMemoryInputStream extends MemoryInputStream {
     private final WeakReference<OffHeapMemoryStorage> ref;
@@ -45,7 +51,7 @@ public final class OffHeapMemoryInputStream extends MemoryInputStream {
         this.ref = new WeakReference<>(offHeapMemoryStorage);
         this.linked = linked;
         if (linked)
-            offHeapMemoryStorage.monitor.addStream(this);
+            offHeapMemoryStorage.monitor().addStream(this);
     }
 
     protected void ensureOpen() throws IOException {
@@ -85,7 +91,7 @@ public final class OffHeapMemoryInputStream extends MemoryInputStream {
         ensureOpen();
         if (b == null)
             throw new NullPointerException();
-        if (off < 0 || len < 0 || off + len > b.length)
+        if (off < 0 || len < 0 || len > b.length - off)
             throw new IndexOutOfBoundsException();
         OffHeapMemoryStorage storage = getStorageOrFail();
         if (offset >= storage.size)
@@ -107,6 +113,79 @@ public final class OffHeapMemoryInputStream extends MemoryInputStream {
         return toRead;
     }
 
+    /**
+     * Checks that <code>n</code> bytes can be read and advances the offset
+     * 
+     * @return The address to read the bytes from
+     * @throws EOFException If less than <code>n</code> bytes are left
+     */
+    long require(long n) throws IOException {
+        ensureOpen();
+        OffHeapMemoryStorage storage = getStorageOrFail();
+        if (offset >= storage.size)
+            throw new EOFException("Unexpected EOF");
+        if (offset + n > storage.size)
+            throw new EOFException("Corrupt or Incomplete data");
+        if (storage.isClosed()) {
+            if (linked)
+                close();
+            throw new IOException("OffHeapMemoryStorage was closed");
+        }
+        long addr = storage.baseAddr + offset;
+        offset += n;
+        return addr;
+    }
+
+    /** Copies the bytes straight from the storage, with a single bounds check */
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        if (b == null)
+            throw new NullPointerException();
+        if (off < 0 || len < 0 || len > b.length - off)
+            throw new IndexOutOfBoundsException();
+        if (len == 0)
+            return;
+        UNSAFE.copyMemory(null, require(len), b, Unsafe.ARRAY_BYTE_BASE_OFFSET + off, len);
+    }
+
+    /** Copies the elements straight from the storage */
+    @Override
+    public void readArray(Object arr, int off, int len) throws IOException {
+        if (arr == null)
+            throw new NullPointerException();
+        Class<?> cls = arr.getClass();
+        if (!cls.isArray() || !cls.getComponentType().isPrimitive())
+            throw new IllegalArgumentException("Not a primitive array: " + cls.getName());
+        if (off < 0 || len < 0 || len > Array.getLength(arr) - off)
+            throw new IndexOutOfBoundsException();
+        if (len == 0)
+            return;
+        int scale = UNSAFE.arrayIndexScale(cls);
+        long bytes = (long) len * scale;
+        long dst = UNSAFE.arrayBaseOffset(cls) + (long) off * scale;
+        UNSAFE.copyMemory(null, require(bytes), arr, dst, bytes);
+        if (!BIG_ENDIAN)
+            ByteSwapper.swap(arr, dst, bytes, scale);
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        long v = UNSAFE.getLong(require(8));
+        return BIG_ENDIAN ? v : Long.reverseBytes(v);
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        int v = UNSAFE.getInt(require(4));
+        return BIG_ENDIAN ? v : Integer.reverseBytes(v);
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        char v = UNSAFE.getChar(require(2));
+        return BIG_ENDIAN ? v : Character.reverseBytes(v);
+    }
+
     public long getOffset() {
         return offset;
     }
@@ -128,6 +207,13 @@ public final class OffHeapMemoryInputStream extends MemoryInputStream {
         return skipped;
     }
 
+    /** @return The amount of bytes left in the storage */
+    public long remaining() throws IOException {
+        ensureOpen();
+        OffHeapMemoryStorage storage = getStorageOrFail();
+        return storage.size - offset;
+    }
+
     @Override
     public int available() throws IOException {
         ensureOpen();
@@ -148,9 +234,37 @@ public final class OffHeapMemoryInputStream extends MemoryInputStream {
         ref.clear();
     }
 
+    /**
+     * Transfers the rest of the storage to the stream. Off-heap destinations
+     * receive the bytes with a single copy, and channel destinations get them
+     * through a direct buffer that views the storage, so no heap copy is made.
+     */
     @Override
     public long transferTo(OutputStream os) throws IOException {
         ensureOpen();
+        if (os == null)
+            throw new NullPointerException();
+        if (os instanceof OffHeapMemoryOutputStream) {
+            long n = remaining();
+            if (n <= 0)
+                return 0;
+            long dst = ((OffHeapMemoryOutputStream) os).reserve(n);
+            OffHeapMemoryBulkOps.copy(null, require(n), dst, n);
+            return n;
+        }
+        if (os instanceof ChannelMemoryOutputStream) {
+            ChannelMemoryOutputStream cos = (ChannelMemoryOutputStream) os;
+            OffHeapMemoryStorage storage = getStorageOrFail();
+            long t = 0;
+            while (offset < storage.size) {
+                int len = (int) Math.min(storage.size - offset, OffHeapMemoryAsyncIO.CHUNK_SIZE);
+                long off = offset;
+                require(len);
+                cos.write(storage.asByteBuffer(off, len));
+                t += len;
+            }
+            return t;
+        }
         long t = 0;
         byte[] buf = new byte[4096];
         while (this.available() > 0) {
@@ -25,12 +25,19 @@ package io.github.demnetwork.runtime.utils.memory;
 
 import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage.UNSAFE;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.nio.ByteOrder;
+import io.github.demnetwork.runtime.internal.secret.ByteSwapper;
+import io.github.demnetwork.runtime.utils.memory.serial.ChannelMemoryInputStream;
 import io.github.demnetwork.runtime.utils.memory.serial.MemoryOutputStream;
 
 public final class OffHeapMemoryOutputStream extends MemoryOutputStream {
     static final int BYTE_MASK = 0xFF;
+    static final boolean BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
     private final WeakReference<OffHeapMemoryStorage> ref;
     private long offset = 0;
     private final boolean linked;
@@ -44,7 +51,7 @@ public final class OffHeapMemoryOutputStream extends MemoryOutputStream {
         this.ref = new WeakReference<OffHeapMemoryStorage>(offHeapMemoryStorage);
         this.linked = linked;
         if (linked)
-            offHeapMemoryStorage.monitor.addStream(this);
+            offHeapMemoryStorage.monitor().addStream(this);
     }
 
     private OffHeapMemoryStorage getStorageOrFail() throws IOException {
@@ -63,7 +70,7 @@ public final class OffHeapMemoryOutputStream extends MemoryOutputStream {
         OffHeapMemoryStorage offHeapMemoryStorage = getStorageOrFail();
         byte data = (byte) (b & BYTE_MASK);
         if (offset >= offHeapMemoryStorage.size)
-            throw new IOException("This OutputStream reached its end.");
+            throw new EOFException("This OutputStream reached its end.");
         try {
             offHeapMemoryStorage.setByte(offset++, data);
         } catch (IllegalStateException e) {
@@ -114,11 +121,11 @@ public final class OffHeapMemoryOutputStream extends MemoryOutputStream {
         ensureOpen();
         if (b == null)
             throw new NullPointerException();
-        if (off < 0 || len < 0 || off + len > b.length)
+        if (off < 0 || len < 0 || len > b.length - off)
             throw new IndexOutOfBoundsException();
         OffHeapMemoryStorage offHeapMemoryStorage = getStorageOrFail();
-        if (offset + len > offHeapMemoryStorage.size)
-            throw new IOException("Not enough space in OffHeapMemoryStorage");
+        if (len > offHeapMemoryStorage.size - offset)
+            throw new EOFException("Not enough space in OffHeapMemoryStorage");
         if (offHeapMemoryStorage.isClosed()) {
             if (this.linked)
                 this.close();
@@ -136,6 +143,117 @@ public final class OffHeapMemoryOutputStream extends MemoryOutputStream {
         write(b, 0, b.length);
     }
 
+    /**
+     * Checks that <code>n</code> bytes can be written and advances the offset
+     * 
+     * @return The address to write the bytes at
+     */
+    long reserve(long n) throws IOException {
+        ensureOpen();
+        OffHeapMemoryStorage offHeapMemoryStorage = getStorageOrFail();
+        if (offset + n > offHeapMemoryStorage.size)
+            throw new EOFException("Not enough space in OffHeapMemoryStorage");
+        if (offHeapMemoryStorage.isClosed()) {
+            if (this.linked)
+                this.close();
+            throw new IOException("The OffHeapMemoryStorage is closed");
+        }
+        long addr = offHeapMemoryStorage.baseAddr + offset;
+        offset += n;
+        return addr;
+    }
+
+    /** Copies the elements straight to the storage */
+    @Override
+    public void writeArray(Object arr, int off, int len) throws IOException {
+        if (arr == null)
+            throw new NullPointerException();
+        Class<?> cls = arr.getClass();
+        if (!cls.isArray() || !cls.getComponentType().isPrimitive())
+            throw new IllegalArgumentException("Not a primitive array: " + cls.getName());
+        if (off < 0 || len < 0 || len > Array.getLength(arr) - off)
+            throw new IndexOutOfBoundsException();
+        int scale = UNSAFE.arrayIndexScale(cls);
+        long bytes = (long) len * scale;
+        long addr = reserve(bytes);
+        UNSAFE.copyMemory(arr, UNSAFE.arrayBaseOffset(cls) + (long) off * scale, null, addr, bytes);
+        if (!BIG_ENDIAN)
+            ByteSwapper.swap(null, addr, bytes, scale);
+    }
+
+    @Override
+    public void writeLong(long v) throws IOException {
+        UNSAFE.putLong(reserve(8), BIG_ENDIAN ? v : Long.reverseBytes(v));
+    }
+
+    @Override
+    public void writeInt(int v) throws IOException {
+        UNSAFE.putInt(reserve(4), BIG_ENDIAN ? v : Integer.reverseBytes(v));
+    }
+
+    @Override
+    public void writeChar(char v) throws IOException {
+        UNSAFE.putChar(reserve(2), BIG_ENDIAN ? v : Character.reverseBytes(v));
+    }
+
+    /**
+     * Copies up to <code>n</code> bytes from the stream into the storage.
+     * Off-heap sources are copied with a single copy, and channel sources are
+     * read straight into a direct buffer that views the storage.
+     *
+     * @return The amount of bytes copied, which is less than <code>n</code> only
+     *         if the stream reached its end
+     * @throws IOException If <code>n</code> bytes do not fit in the storage, or
+     *                     if an I/O Operation went wrong
+     */
+    public long transferFrom(InputStream is, long n) throws IOException {
+        ensureOpen();
+        if (is == null)
+            throw new NullPointerException();
+        if (n < 0)
+            throw new IllegalArgumentException("Negative length");
+        OffHeapMemoryStorage offHeapMemoryStorage = getStorageOrFail();
+        if (offset + n > offHeapMemoryStorage.size)
+            throw new EOFException("Not enough space in OffHeapMemoryStorage");
+        if (n == 0)
+            return 0;
+        if (is instanceof OffHeapMemoryInputStream) {
+            OffHeapMemoryInputStream src = (OffHeapMemoryInputStream) is;
+            long len = Math.min(n, src.remaining());
+            if (len <= 0)
+                return 0;
+            long dst = reserve(len);
+            OffHeapMemoryBulkOps.copy(null, src.require(len), dst, len);
+            return len;
+        }
+        if (is instanceof ChannelMemoryInputStream) {
+            ChannelMemoryInputStream src = (ChannelMemoryInputStream) is;
+            long t = 0;
+            while (t < n) {
+                int len = (int) Math.min(n - t, OffHeapMemoryAsyncIO.CHUNK_SIZE);
+                reserve(0); // Fails if the storage was closed
+                int r = src.read(offHeapMemoryStorage.asByteBuffer(offset, len));
+                if (r == -1)
+                    break;
+                offset += r;
+                t += r;
+                if (r < len)
+                    break; // Short reads only happen at the end of the channel
+            }
+            return t;
+        }
+        byte[] buf = new byte[(int) Math.min(n, 8192)];
+        long t = 0;
+        while (t < n) {
+            int r = is.read(buf, 0, (int) Math.min(buf.length, n - t));
+            if (r == -1)
+                break;
+            write(buf, 0, r);
+            t += r;
+        }
+        return t;
+    }
+
     public long remaining() throws IOException {
         ensureOpen();
         OffHeapMemoryStorage offHeapMemoryStorage = getStorageOrFail();
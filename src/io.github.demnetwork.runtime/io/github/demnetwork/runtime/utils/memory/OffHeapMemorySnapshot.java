@@ -0,0 +1,378 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage.UNSAFE;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import io.github.demnetwork.runtime.internal.MeIDontLikeLambdas;
+import sun.misc.Unsafe;
+
+/**
+ * Writes and reads compressed snapshots of an {@link OffHeapMemoryStorage}.
+ * <p>
+ * The storage is split in blocks. Blocks that only contain zeros are not
+ * written at all, and the other blocks are compressed with an LZ4 block codec
+ * (or stored raw when compression does not help). Blocks are compressed and
+ * decompressed in parallel on a {@link ForkJoinPool}. Compressed blocks are
+ * written one after the other by the calling thread, since the file offset of
+ * a block depends on the sizes of the blocks before it, while blocks are read
+ * back with positional reads from the tasks.
+ * <p>
+ * Layout of a snapshot file:
+ *
+ * <pre>
+ * header: magic(8) version(4) blockSize(4) storageSize(8) blockCount(4)
+ * data:   block payloads
+ * index:  (type(1) fileOffset(8) length(4)) * blockCount
+ * footer: indexOffset(8)
+ * </pre>
+ */
+@MeIDontLikeLambdas
+public final class OffHeapMemorySnapshot {
+    public static final long MAGIC = 0x52554D534E415031L; // "RUMSNAP1"
+    public static final int VERSION = 1;
+    public static final int DEFAULT_BLOCK_SIZE = 65536;
+    static final byte ZERO_BLOCK = 0;
+    static final byte RAW_BLOCK = 1;
+    static final byte LZ4_BLOCK = 2;
+    private static final int HEADER_SIZE = 28;
+    private static final int INDEX_ENTRY_SIZE = 13;
+
+    private OffHeapMemorySnapshot() {
+    }
+
+    public static long write(OffHeapMemoryStorage storage, Path p) throws IOException {
+        return write(storage, p, DEFAULT_BLOCK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Writes a snapshot of the storage to a file, replacing its contents
+     *
+     * @param storage   The storage to snapshot
+     * @param p         The destination file
+     * @param blockSize The size of each block
+     * @param pool      The pool that compresses the blocks
+     * @return The size of the snapshot file
+     * @throws IOException If an I/O Operation went wrong
+     */
+    public static long write(OffHeapMemoryStorage storage, Path p, int blockSize, ForkJoinPool pool)
+            throws IOException {
+        if (storage == null || p == null || pool == null)
+            throw new NullPointerException();
+        if (blockSize < 64)
+            throw new IllegalArgumentException("Block size too small");
+        storage.ensureOpen();
+        long blocks = (storage.size - 1) / blockSize + 1;
+        long indexLen = blocks * INDEX_ENTRY_SIZE + 8;
+        if (indexLen > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many blocks, use a larger block size");
+        int count = (int) blocks;
+        byte[] types = new byte[count];
+        long[] offsets = new long[count];
+        int[] lengths = new int[count];
+        int window = Math.max(1, pool.getParallelism() * 4);
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putLong(MAGIC).putInt(VERSION).putInt(blockSize).putLong(storage.size).putInt(count).flip();
+            writeFully(ch, header);
+            long pos = HEADER_SIZE;
+            CompressTask[] tasks = new CompressTask[window];
+            for (int first = 0; first < count; first += window) {
+                int n = Math.min(window, count - first);
+                for (int i = 0; i < n; i++) {
+                    long off = (long) (first + i) * blockSize;
+                    tasks[i] = new CompressTask(storage, off, (int) Math.min(blockSize, storage.size - off));
+                    pool.execute(tasks[i]);
+                }
+                for (int i = 0; i < n; i++) {
+                    CompressTask t = tasks[i];
+                    byte[] data = t.join();
+                    int b = first + i;
+                    types[b] = t.type;
+                    offsets[b] = pos;
+                    if (t.type == ZERO_BLOCK) {
+                        lengths[b] = 0;
+                    } else if (t.type == RAW_BLOCK) {
+                        lengths[b] = t.len;
+                        writeFully(ch, storage.asByteBuffer(t.off, t.len));
+                    } else {
+                        lengths[b] = t.compressedLen;
+                        writeFully(ch, ByteBuffer.wrap(data, 0, t.compressedLen));
+                    }
+                    pos += lengths[b];
+                    tasks[i] = null;
+                }
+            }
+            ByteBuffer index = ByteBuffer.allocate((int) indexLen);
+            for (int i = 0; i < count; i++)
+                index.put(types[i]).putLong(offsets[i]).putInt(lengths[i]);
+            index.putLong(pos).flip();
+            writeFully(ch, index);
+            return pos + index.capacity();
+        }
+    }
+
+    /**
+     * Reads a snapshot into a new storage of the snapshot's size
+     *
+     * @throws IOException              If an I/O Operation went wrong or the file
+     *                                  is not a valid snapshot
+     * @throws IllegalArgumentException If the snapshot is larger than
+     *                                  {@link OffHeapMemoryStorage#MAX_SAFE_ALLOCATION}
+     */
+    public static OffHeapMemoryStorage read(Path p) throws IOException {
+        if (p == null)
+            throw new NullPointerException();
+        long size;
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+            size = checkHeader(ch, readHeader(ch));
+        }
+        OffHeapMemoryStorage storage = new OffHeapMemoryStorage(size);
+        try {
+            read(p, storage, ForkJoinPool.commonPool());
+        } catch (IOException | RuntimeException e) {
+            storage.close();
+            throw e;
+        }
+        return storage;
+    }
+
+    /**
+     * Reads a snapshot into an existing storage, starting at offset 0
+     *
+     * @param p    The snapshot file
+     * @param dst  The destination storage, must be at least as large as the
+     *             snapshot
+     * @param pool The pool that decompresses the blocks
+     * @throws IOException If an I/O Operation went wrong or the file is not a
+     *                     valid snapshot
+     */
+    public static void read(Path p, OffHeapMemoryStorage dst, ForkJoinPool pool) throws IOException {
+        if (p == null || dst == null || pool == null)
+            throw new NullPointerException();
+        dst.ensureOpen();
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(ch);
+            long size = checkHeader(ch, header);
+            int blockSize = header.getInt(12);
+            int count = header.getInt(24);
+            if (size > dst.size)
+                throw new IllegalArgumentException("The snapshot does not fit in the storage");
+            ByteBuffer footer = ByteBuffer.allocate(8);
+            readFully(ch, footer, ch.size() - 8);
+            long indexOff = footer.getLong(0);
+            int indexLen = count * INDEX_ENTRY_SIZE; // Bounded by checkHeader
+            if (indexOff < HEADER_SIZE || indexOff != ch.size() - 8 - indexLen)
+                throw new IOException("Corrupt snapshot index offset");
+            ByteBuffer index = ByteBuffer.allocate(indexLen);
+            readFully(ch, index, indexOff);
+            index.flip();
+            // The whole index is checked before any task starts writing to the storage
+            DecompressTask[] tasks = new DecompressTask[count];
+            for (int i = 0; i < count; i++) {
+                byte type = index.get();
+                long fileOff = index.getLong();
+                int len = index.getInt();
+                long memOff = (long) i * blockSize;
+                int blockLen = (int) Math.min(blockSize, size - memOff);
+                checkEntry(i, type, fileOff, len, blockLen, indexOff);
+                tasks[i] = new DecompressTask(ch, dst, type, fileOff, len, memOff, blockLen);
+            }
+            int n = 0;
+            try {
+                for (; n < count; n++)
+                    pool.execute(tasks[n]);
+            } finally {
+                // No task may outlive the channel, nor the storage that read(Path) frees on failure
+                for (int i = 0; i < n; i++)
+                    tasks[i].quietlyJoin();
+            }
+            for (int i = 0; i < count; i++)
+                tasks[i].join(); // Rethrows the first failure
+        } catch (RuntimeException e) {
+            for (Throwable t = e.getCause(); t != null; t = t.getCause())
+                if (t instanceof IOException)
+                    throw (IOException) t; // Unwrap failures of DecompressTask
+            throw e;
+        }
+    }
+
+    private static ByteBuffer readHeader(FileChannel ch) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(ch, header, 0);
+        if (header.getLong(0) != MAGIC)
+            throw new IOException("Not a snapshot file");
+        if (header.getInt(8) != VERSION)
+            throw new IOException("Unsupported snapshot version: " + header.getInt(8));
+        return header;
+    }
+
+    /**
+     * Checks that the header describes a snapshot that the file can hold
+     *
+     * @return The size of the snapshotted storage
+     */
+    private static long checkHeader(FileChannel ch, ByteBuffer header) throws IOException {
+        int blockSize = header.getInt(12);
+        long size = header.getLong(16);
+        int count = header.getInt(24);
+        if (blockSize < 64 || size < 1 || count != (size - 1) / blockSize + 1)
+            throw new IOException("Corrupt snapshot header");
+        // Every block has an index entry, so the file bounds the block count
+        long indexLen = (long) count * INDEX_ENTRY_SIZE;
+        if (indexLen > Integer.MAX_VALUE - 8 || HEADER_SIZE + indexLen + 8 > ch.size())
+            throw new IOException("Corrupt snapshot header: " + count + " blocks do not fit in the file");
+        return size;
+    }
+
+    /** Checks an index entry, so a corrupt snapshot never reaches the tasks */
+    private static void checkEntry(int i, byte type, long fileOff, int len, int blockLen, long indexOff)
+            throws IOException {
+        boolean ok;
+        if (type == ZERO_BLOCK)
+            ok = len == 0;
+        else if (type == RAW_BLOCK)
+            ok = len == blockLen;
+        else if (type == LZ4_BLOCK)
+            ok = len > 0 && len <= Lz4BlockCodec.maxCompressedLength(blockLen);
+        else
+            throw new IOException("Unknown block type: " + type);
+        if (!ok)
+            throw new IOException("Corrupt snapshot block " + i + ": illegal length " + len);
+        if (fileOff < HEADER_SIZE || fileOff > indexOff - len)
+            throw new IOException("Corrupt snapshot block " + i + ": illegal file offset " + fileOff);
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining())
+            ch.write(buf);
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            int r = ch.read(buf, pos);
+            if (r == -1)
+                throw new IOException("Unexpected end of snapshot");
+            pos += r;
+        }
+    }
+
+    /** @return <code>true</code> if every byte in the region is zero */
+    static boolean isZero(long addr, long len) {
+        long i = 0;
+        for (; i + 8 <= len; i += 8)
+            if (UNSAFE.getLong(addr + i) != 0L)
+                return false;
+        for (; i < len; i++)
+            if (UNSAFE.getByte(addr + i) != 0)
+                return false;
+        return true;
+    }
+
+    @SuppressWarnings("serial") // Tasks are never serialized
+    private static final class CompressTask extends RecursiveTask<byte[]> {
+        private final OffHeapMemoryStorage storage;
+        private final long off;
+        private final int len;
+        private byte type;
+        private int compressedLen;
+
+        private CompressTask(OffHeapMemoryStorage storage, long off, int len) {
+            this.storage = storage;
+            this.off = off;
+            this.len = len;
+        }
+
+        @Override
+        protected byte[] compute() {
+            long addr = storage.baseAddr + off;
+            if (isZero(addr, len)) {
+                this.type = ZERO_BLOCK;
+                return null;
+            }
+            byte[] src = new byte[len];
+            UNSAFE.copyMemory(null, addr, src, Unsafe.ARRAY_BYTE_BASE_OFFSET, len);
+            byte[] dst = new byte[Lz4BlockCodec.maxCompressedLength(len)];
+            int c = Lz4BlockCodec.compress(src, len, dst);
+            if (c >= len) {
+                this.type = RAW_BLOCK;
+                return null;
+            }
+            this.type = LZ4_BLOCK;
+            this.compressedLen = c;
+            return dst;
+        }
+    }
+
+    @SuppressWarnings("serial") // Tasks are never serialized
+    private static final class DecompressTask extends RecursiveAction {
+        private final FileChannel ch;
+        private final OffHeapMemoryStorage dst;
+        private final byte type;
+        private final long fileOff;
+        private final int len;
+        private final long memOff;
+        private final int blockLen;
+
+        private DecompressTask(FileChannel ch, OffHeapMemoryStorage dst, byte type, long fileOff, int len,
+                long memOff, int blockLen) {
+            this.ch = ch;
+            this.dst = dst;
+            this.type = type;
+            this.fileOff = fileOff;
+            this.len = len;
+            this.memOff = memOff;
+            this.blockLen = blockLen;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                long addr = dst.baseAddr + memOff;
+                if (type == ZERO_BLOCK) {
+                    UNSAFE.setMemory(addr, blockLen, (byte) 0);
+                } else if (type == RAW_BLOCK) {
+                    readFully(ch, dst.asByteBuffer(memOff, blockLen), fileOff);
+                } else if (type == LZ4_BLOCK) {
+                    byte[] src = new byte[len];
+                    readFully(ch, ByteBuffer.wrap(src), fileOff);
+                    byte[] out = new byte[blockLen];
+                    if (Lz4BlockCodec.decompress(src, len, out, blockLen) != blockLen)
+                        throw new IOException("Corrupt compressed block");
+                    UNSAFE.copyMemory(out, Unsafe.ARRAY_BYTE_BASE_OFFSET, null, addr, blockLen);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
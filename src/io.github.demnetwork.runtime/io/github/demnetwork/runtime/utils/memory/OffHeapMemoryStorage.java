@@ -31,8 +31,13 @@ import java.io.IOException;
 import java.lang.ref.Cleaner;
 import java.lang.ref.Cleaner.Cleanable;
 import java.lang.reflect.*;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.file.Path;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import io.github.demnetwork.runtime.internal.BuildData;
 
 public sealed class OffHeapMemoryStorage implements AutoCloseable
@@ -43,17 +48,27 @@ public sealed class OffHeapMemoryStorage implements AutoCloseable
             Field f = Unsafe.class.getDeclaredField("theUnsafe");
             f.setAccessible(true);
             UNSAFE = (Unsafe) f.get(null);
+            BUFFER_ADDRESS_OFFSET = UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+            BUFFER_CAPACITY_OFFSET = UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("capacity"));
+            BUFFER_LIMIT_OFFSET = UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("limit"));
+            MONITOR_OFFSET = UNSAFE.objectFieldOffset(OffHeapMemoryStorage.class.getDeclaredField("monitor"));
         } catch (Exception e) {
             throw new ExceptionInInitializerError(e);
         }
     }
+    private static final long BUFFER_ADDRESS_OFFSET;
+    private static final long BUFFER_CAPACITY_OFFSET;
+    private static final long BUFFER_LIMIT_OFFSET;
+    private static final long MONITOR_OFFSET;
+    private static final ByteBuffer BUFFER_TEMPLATE = ByteBuffer.allocateDirect(0);
     public final long size;
     protected final long baseAddr;
     protected static final ByteOrder NATIVE_ORDER = ByteOrder.nativeOrder();
     protected volatile boolean closed;
     private static final Cleaner CLEANER = Cleaner.create();
     protected final Cleanable cleanable;
-    final OffHeapMemoryInstanceMonitor monitor = new OffHeapMemoryInstanceMonitor(this);
+    /** Tracks the linked streams, created with the first of them */
+    private volatile OffHeapMemoryInstanceMonitor monitor = null;
     /**
      * The maximum safe allocation size in bytes. Defaults to 2 GiB
      * (<code>2147483648L</code>),
@@ -151,7 +166,7 @@ public sealed class OffHeapMemoryStorage implements AutoCloseable
             OffHeapMemoryStorage.this.closed = true;
             UNSAFE.setMemory(address, size, (byte) 0); // Set Memory to 0
             UNSAFE.freeMemory(this.address);
-            OffHeapMemoryStorage.this.monitor.onClose();
+            OffHeapMemoryStorage.this.closeStreams();
         }
     }
 
@@ -166,7 +181,24 @@ public sealed class OffHeapMemoryStorage implements AutoCloseable
         UNSAFE.setMemory(baseAddr, size, (byte) 0); // Clean memory on close, maybe the GC may not clean it.
         if (cleanable != null)
             cleanable.clean();
-        this.monitor.onClose();
+        this.closeStreams();
+    }
+
+    final OffHeapMemoryInstanceMonitor monitor() {
+        OffHeapMemoryInstanceMonitor m = this.monitor;
+        if (m == null) {
+            m = new OffHeapMemoryInstanceMonitor(this);
+            if (!UNSAFE.compareAndSwapObject(this, MONITOR_OFFSET, null, m))
+                m = this.monitor;
+        }
+        return m;
+    }
+
+    /** Closes the linked streams */
+    final void closeStreams() {
+        OffHeapMemoryInstanceMonitor m = this.monitor;
+        if (m != null)
+            m.onClose();
     }
 
     protected void ensureOpen() {
@@ -421,7 +453,95 @@ public sealed class OffHeapMemoryStorage implements AutoCloseable
     }
 
     public void fill(byte value) {
-        UNSAFE.setMemory(this.baseAddr, size, value);
+        this.fill(value, null);
+    }
+
+    /**
+     * Sets every byte of this storage to the value
+     * 
+     * @param value The value
+     * @param pool  The pool used to fill large storages in parallel, or
+     *              <code>null</code> to fill on the calling thread
+     */
+    public void fill(byte value, ForkJoinPool pool) {
+        ensureOpen();
+        OffHeapMemoryBulkOps.fill(pool, this.baseAddr, size, value);
+    }
+
+    public void copyTo(OffHeapMemoryStorage dst, long srcOff, long dstOff, long len) {
+        this.copyTo(dst, srcOff, dstOff, len, null);
+    }
+
+    /**
+     * Copies a region of this storage into another storage (or into this one).
+     * Overlapping regions are handled correctly.
+     * 
+     * @param dst    The destination storage
+     * @param srcOff The offset in this storage
+     * @param dstOff The offset in the destination storage
+     * @param len    The amount of bytes to copy
+     * @param pool   The pool used to copy large regions in parallel, or
+     *               <code>null</code> to copy on the calling thread
+     * @throws IllegalArgumentException If a region is out of bounds
+     */
+    public void copyTo(OffHeapMemoryStorage dst, long srcOff, long dstOff, long len, ForkJoinPool pool) {
+        ensureOpen();
+        if (dst == null)
+            throw new NullPointerException("Null destination");
+        dst.ensureOpen();
+        if (len < 0)
+            throw new IllegalArgumentException("Negative length");
+        if (srcOff < 0 || len > this.size - srcOff)
+            throw new IllegalArgumentException("Illegal source Offset or length");
+        if (dstOff < 0 || len > dst.size - dstOff)
+            throw new IllegalArgumentException("Illegal destination Offset or length");
+        if (len == 0)
+            return;
+        OffHeapMemoryBulkOps.copy(pool, this.baseAddr + srcOff, dst.baseAddr + dstOff, len);
+    }
+
+    public long mismatch(OffHeapMemoryStorage other) {
+        return this.mismatch(other, null);
+    }
+
+    /**
+     * Finds the first byte that differs between this storage and another one
+     * 
+     * @param other The storage to compare with
+     * @param pool  The pool used to compare large storages in parallel, or
+     *              <code>null</code> to compare on the calling thread
+     * @return The offset of the first mismatch, or <code>-1</code> if there is
+     *         no mismatch. If one storage is a prefix of the other, the size of
+     *         the smaller storage is returned.
+     */
+    public long mismatch(OffHeapMemoryStorage other, ForkJoinPool pool) {
+        ensureOpen();
+        if (other == null)
+            throw new NullPointerException();
+        other.ensureOpen();
+        long len = Math.min(this.size, other.size);
+        long m = other.baseAddr == this.baseAddr ? -1L
+                : OffHeapMemoryBulkOps.mismatch(pool, this.baseAddr, other.baseAddr, len);
+        if (m == -1L && this.size != other.size)
+            return len;
+        return m;
+    }
+
+    public boolean contentEquals(OffHeapMemoryStorage other) {
+        return this.contentEquals(other, null);
+    }
+
+    /**
+     * @return <code>true</code> if both storages have the same size and
+     *         contents
+     * @see #mismatch(OffHeapMemoryStorage, ForkJoinPool)
+     */
+    public boolean contentEquals(OffHeapMemoryStorage other, ForkJoinPool pool) {
+        if (other == null)
+            throw new NullPointerException();
+        if (other.size != this.size)
+            return false;
+        return this.mismatch(other, pool) == -1L;
     }
 
     public static Optional<OffHeapMemoryStorage> tryAllocate(long bytes) {
@@ -515,6 +635,78 @@ public sealed class OffHeapMemoryStorage implements AutoCloseable
         os.close();
     }
 
+    /**
+     * Reads bytes from a file into this storage asynchronously
+     * 
+     * @param p       The file to read from
+     * @param fileOff The position in the file to start reading from
+     * @param memOff  The offset in this storage to start writing to
+     * @param len     The amount of bytes to read
+     * @return A future completed with the amount of bytes read, which is less
+     *         than <code>len</code> if the file ended before
+     * @throws IllegalArgumentException If the offsets or the length are invalid
+     * @apiNote This storage must not be closed before the future completes
+     */
+    public CompletableFuture<Long> readFromAsync(Path p, long fileOff, long memOff, long len) {
+        ensureOpen();
+        checkAsyncArgs(p, fileOff, memOff, len);
+        return OffHeapMemoryAsyncIO.transfer(this, p, fileOff, memOff, len, false);
+    }
+
+    /**
+     * Writes bytes from this storage into a file asynchronously, creating the
+     * file if it does not exist
+     * 
+     * @param p       The file to write to
+     * @param fileOff The position in the file to start writing to
+     * @param memOff  The offset in this storage to start reading from
+     * @param len     The amount of bytes to write
+     * @return A future completed with the amount of bytes written
+     * @throws IllegalArgumentException If the offsets or the length are invalid
+     * @apiNote This storage must not be closed before the future completes
+     */
+    public CompletableFuture<Long> writeToAsync(Path p, long fileOff, long memOff, long len) {
+        ensureOpen();
+        checkAsyncArgs(p, fileOff, memOff, len);
+        return OffHeapMemoryAsyncIO.transfer(this, p, fileOff, memOff, len, true);
+    }
+
+    private void checkAsyncArgs(Path p, long fileOff, long memOff, long len) {
+        if (p == null)
+            throw new NullPointerException("Null Path");
+        if (len < 0)
+            throw new IllegalArgumentException("Negative length");
+        if (fileOff < 0)
+            throw new IllegalArgumentException("Negative file offset");
+        if (memOff < 0 || len > this.size - memOff)
+            throw new IllegalArgumentException("Illegal Offset or length");
+    }
+
+    /**
+     * Creates a direct {@link ByteBuffer} that views a region of this storage.
+     * Changes made through the buffer are visible in this storage, and
+     * vice-versa.
+     * 
+     * @param offset The offset of the region
+     * @param length The length of the region
+     * @return A direct buffer with its position at 0 and its limit at
+     *         <code>length</code>
+     * @throws IllegalArgumentException If the region is out of bounds
+     * @apiNote The buffer does not keep this storage alive. Using the buffer after
+     *          this storage was closed causes undefined behaviour (including JVM
+     *          crashes).
+     */
+    public ByteBuffer asByteBuffer(long offset, int length) {
+        ensureOpen();
+        if (offset < 0 || length < 0 || offset + length > this.size)
+            throw new IllegalArgumentException("Illegal Offset or length");
+        ByteBuffer buf = BUFFER_TEMPLATE.duplicate();
+        UNSAFE.putLong(buf, BUFFER_ADDRESS_OFFSET, this.baseAddr + offset);
+        UNSAFE.putInt(buf, BUFFER_CAPACITY_OFFSET, length);
+        UNSAFE.putInt(buf, BUFFER_LIMIT_OFFSET, length);
+        return buf;
+    }
+
     public final SlicedOffHeapMemoryStorage slice(long offset, long size) {
         ensureOpen();
         if (this.size < offset + size)
@@ -0,0 +1,187 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import static io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage.UNSAFE;
+
+/**
+ * Base of the lists of primitives stored in an {@link OffHeapMemoryStorage}.
+ * <p>
+ * Elements are kept one after the other, in native byte order. A full list
+ * copies its elements into a storage twice as large, like the array of an
+ * {@link java.util.ArrayList}, so adding an element takes constant time on
+ * average. Elements are copied from and to Java arrays with a single copy.
+ * <p>
+ * Lists are not safe for concurrent use.
+ */
+public abstract sealed class OffHeapPrimitiveList implements AutoCloseable
+        permits OffHeapLongList, OffHeapIntList, OffHeapDoubleList {
+    static final long DEFAULT_CAPACITY = 16;
+    /** Size of an element, in bytes */
+    private final int scale;
+    private OffHeapMemoryStorage storage;
+    /** Address of the first element */
+    private long addr;
+    private long size = 0L;
+    private long capacity;
+    private volatile boolean closed = false;
+
+    OffHeapPrimitiveList(int scale, long initialCapacity) {
+        if (initialCapacity < 1)
+            throw new IllegalArgumentException("Illegal Capacity");
+        this.scale = scale;
+        this.capacity = initialCapacity;
+        this.storage = new OffHeapMemoryStorage(Math.multiplyExact(initialCapacity, (long) scale), true);
+        this.addr = this.storage.baseAddr;
+    }
+
+    /** @return The address of a new element, added at the end of the list */
+    final long append() {
+        ensureOpen();
+        if (this.size == this.capacity)
+            reallocate(Math.max(this.size + 1, this.capacity * 2));
+        return this.addr + (this.size++) * this.scale;
+    }
+
+    /** @return The address of an element */
+    final long address(long index) {
+        ensureOpen();
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        return this.addr + index * this.scale;
+    }
+
+    /** @return The address of the last element, which was removed */
+    final long removeLast0() {
+        ensureOpen();
+        if (this.size == 0L)
+            throw new IndexOutOfBoundsException("Empty list");
+        return this.addr + (--this.size) * this.scale;
+    }
+
+    /** Adds the elements of a Java array at the end of the list */
+    final void appendAll(Object arr, int length, int off, int len) {
+        ensureOpen();
+        if (arr == null)
+            throw new NullPointerException();
+        if (off < 0 || len < 0 || len > length - off)
+            throw new IndexOutOfBoundsException();
+        ensureCapacity0(this.size + len);
+        UNSAFE.copyMemory(arr, UNSAFE.arrayBaseOffset(arr.getClass()) + (long) off * this.scale, null,
+                this.addr + this.size * this.scale, (long) len * this.scale);
+        this.size += len;
+    }
+
+    /**
+     * Copies elements between the list and a Java array
+     *
+     * @param toList Whether the elements are copied from the array to the list
+     */
+    final void copy(long index, Object arr, int length, int off, int len, boolean toList) {
+        ensureOpen();
+        if (arr == null)
+            throw new NullPointerException();
+        if (off < 0 || len < 0 || len > length - off || index < 0 || index > this.size - len)
+            throw new IndexOutOfBoundsException();
+        long a = UNSAFE.arrayBaseOffset(arr.getClass()) + (long) off * this.scale;
+        long bytes = (long) len * this.scale;
+        if (toList)
+            UNSAFE.copyMemory(arr, a, null, this.addr + index * this.scale, bytes);
+        else
+            UNSAFE.copyMemory(null, this.addr + index * this.scale, arr, a, bytes);
+    }
+
+    /** @return The size of the array that holds every element */
+    final int arrayLength() {
+        ensureOpen();
+        if (this.size > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("Too many elements for an array");
+        return (int) this.size;
+    }
+
+    /** Makes the list hold at least <code>minCapacity</code> elements without growing */
+    public final void ensureCapacity(long minCapacity) {
+        ensureOpen();
+        ensureCapacity0(minCapacity);
+    }
+
+    private void ensureCapacity0(long minCapacity) {
+        if (minCapacity > this.capacity)
+            reallocate(Math.max(minCapacity, this.capacity * 2));
+    }
+
+    /** Frees the memory of the slots that hold no element */
+    public final void trimToSize() {
+        ensureOpen();
+        if (this.capacity > this.size)
+            reallocate(Math.max(1L, this.size));
+    }
+
+    /** Moves the elements to a storage that holds <code>capacity</code> of them */
+    private void reallocate(long capacity) {
+        OffHeapMemoryStorage old = this.storage;
+        OffHeapMemoryStorage s = new OffHeapMemoryStorage(Math.multiplyExact(capacity, (long) this.scale), true);
+        old.copyTo(s, 0L, 0L, this.size * this.scale);
+        this.storage = s;
+        this.addr = s.baseAddr;
+        this.capacity = capacity;
+        old.close();
+    }
+
+    public final long size() {
+        return this.size;
+    }
+
+    public final boolean isEmpty() {
+        return this.size == 0L;
+    }
+
+    /** @return The amount of elements the list holds without growing */
+    public final long capacity() {
+        return this.capacity;
+    }
+
+    /** Removes every element, keeping the memory allocated */
+    public final void clear() {
+        ensureOpen();
+        this.size = 0L;
+    }
+
+    final void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("Closed " + getClass().getSimpleName());
+    }
+
+    public final boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public final void close() {
+        if (closed)
+            return;
+        this.closed = true;
+        this.storage.close();
+    }
+}
@@ -37,7 +37,7 @@ final class ReutilizableOffHeapMemoryStorage extends OffHeapMemoryStorage {
             return;
         this.closed = true;
         this.inUse = false;
-        super.monitor.onClose();
+        super.closeStreams();
         UNSAFE.setMemory(super.baseAddr, super.size, (byte) 0);
     }
 
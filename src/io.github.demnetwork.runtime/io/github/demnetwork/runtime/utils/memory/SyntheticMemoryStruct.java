@@ -49,6 +49,16 @@ public final class SyntheticMemoryStruct extends MemoryStruct {
     private final SyntheticMemoryStructConstructor logic;
     private final FieldData[] fData;
     public final String name;
+    private static final long NAME_OFFSET;
+    private static final long FDATA_OFFSET;
+    static {
+        try {
+            NAME_OFFSET = UNSAFE.objectFieldOffset(SyntheticMemoryStruct.class.getDeclaredField("name"));
+            FDATA_OFFSET = UNSAFE.objectFieldOffset(SyntheticMemoryStruct.class.getDeclaredField("fData"));
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     SyntheticMemoryStruct(String name, OffHeapMemoryStorage stroage, FieldData[] fields,
             SyntheticMemoryStructConstructor cnsLogic, Object... args) throws IOException {
@@ -89,9 +99,8 @@ public final class SyntheticMemoryStruct extends MemoryStruct {
     @Override
     public SyntheticMemoryStruct readObj(MemoryInputStream mis) throws IOException {
         try {
-            UNSAFE.putObject(this, UNSAFE.objectFieldOffset(SyntheticMemoryStruct.class.getDeclaredField("name")),
-                    ((StringWrapper) mis.readObj()).getValue());
-        } catch (ReflectiveOperationException e) {
+            UNSAFE.putObject(this, NAME_OFFSET, ((StringWrapper) mis.readObj()).getValue());
+        } catch (InstantiationException e) {
             throw new IOException("Failed to read data", e);
         }
         return (SyntheticMemoryStruct) super.readObj(mis);
@@ -100,16 +109,11 @@ public final class SyntheticMemoryStruct extends MemoryStruct {
     @Override
     protected void interpretData(int fc, Table fields) throws IOException, InstantiationException {
         super.interpretData(fc, fields);
-        try {
-            FieldData[] arr = new FieldData[fc];
-            for (int i = 0; i < fc; i++) {
-                arr[i] = new FieldData((String) fields.get(0, i), ((Integer) fields.get(2, i)).intValue());
-            }
-            UNSAFE.putObject(this, UNSAFE.objectFieldOffset(SyntheticMemoryStruct.class.getDeclaredField("fData")),
-                    arr);
-        } catch (ReflectiveOperationException e) {
-            throw new IOException("Failed to read data", e);
+        FieldData[] arr = new FieldData[fc - 1];
+        for (int i = 1; i < fc; i++) { // Skip the sentinel row
+            arr[i - 1] = new FieldData((String) fields.get(0, i), ((Integer) fields.get(2, i)).intValue());
         }
+        UNSAFE.putObject(this, FDATA_OFFSET, arr);
     }
 
     @Override
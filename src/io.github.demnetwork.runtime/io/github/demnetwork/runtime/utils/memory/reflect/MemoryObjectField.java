@@ -28,16 +28,13 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import io.github.demnetwork.runtime.internal.BuildData;
+import io.github.demnetwork.runtime.internal.secret.MemoryObjectAccess;
 import io.github.demnetwork.runtime.utils.Table;
 import io.github.demnetwork.runtime.utils.memory.MemoryObject;
 import io.github.demnetwork.runtime.utils.memory.OffHeapMemoryInputStream;
-import io.github.demnetwork.runtime.utils.memory.OffHeapMemoryOutputStream;
 import io.github.demnetwork.runtime.utils.memory.OffHeapMemoryStorage;
 import io.github.demnetwork.runtime.utils.memory.MemoryObject.FieldMetadata;
 import io.github.demnetwork.runtime.utils.memory.serial.MemorySerializable;
-import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.IntWrapper;
-import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.LongWrapper;
-import io.github.demnetwork.runtime.utils.memory.serial.StringWrapper;
 import sun.misc.Unsafe;
 
 /**
@@ -49,6 +46,7 @@ import sun.misc.Unsafe;
  */
 public class MemoryObjectField implements Closeable {
     static final Unsafe UNSAFE;
+    private static final MemoryObjectAccess ACCESS = MemoryObjectAccess.getAccess();
     protected final MemoryObject obj;
     protected final FieldMetadata mData;
     protected final OffHeapMemoryInputStream mis;
@@ -92,7 +90,7 @@ public class MemoryObjectField implements Closeable {
 
     public MemorySerializable get() throws IOException {
         ensureOpen();
-        return (MemorySerializable) this.fields.get(1, mData.fieldID); // No need to fr expensive de-serialization
+        return ACCESS.getFieldValue(obj, mData.fieldID); // Only lazy objects may need to decode the value
     }
 
     public MemorySerializable getAtOffset(long off) throws IOException, InstantiationException {
@@ -119,28 +117,23 @@ public class MemoryObjectField implements Closeable {
 
     public void set(MemorySerializable object, boolean flush) throws IOException {
         ensureOpen();
-        int mod = ((Integer) fields.get(2, mData.fieldID)).intValue();
-        if ((mod & Modifier.FINAL) != 0)
+        ensureWritable();
+        if ((mData.getModifiers() & Modifier.FINAL) != 0)
             throw new IllegalArgumentException("Cannot modify final field: " + mData.getName());
-        fields.set(object, 1, mData.fieldID);
-        if (flush)
-            pullMem();
+        ACCESS.setFieldValue(obj, mData.fieldID, object, false, flush);
     }
 
+    /**
+     * Updates the storage of the object
+     * 
+     * @deprecated The owner writes the layout, use
+     *             {@link #set(MemorySerializable, boolean)} instead
+     */
+    @Deprecated
     protected void pullMem() throws IOException {
         ensureOpen();
-        try (OffHeapMemoryOutputStream os = this.storage.toOutputStream(false)) {
-            os.writeObj(new LongWrapper(this.storage.size));
-            os.writeObj(new IntWrapper(this.fields.getRowCount() - 1));
-            for (int i = 1; i < this.fields.getRowCount(); i++) {
-                os.writeObj(new StringWrapper((String) this.fields.get(0, i)));
-                long off = os.getOffset();
-                this.fields.set(off, 3, i);
-                os.writeObj((MemorySerializable) this.fields.get(1, i));
-                os.writeObj(new IntWrapper(((Integer) this.fields.get(2, i)).intValue()));
-                os.writeObj(new LongWrapper(off));
-            }
-        }
+        ensureWritable();
+        ACCESS.flush(obj);
     }
 
     @Override
@@ -164,6 +157,11 @@ public class MemoryObjectField implements Closeable {
         }
     }
 
+    protected void ensureWritable() {
+        if (obj.isReadOnly())
+            throw new UnsupportedOperationException("Read-only MemoryObject");
+    }
+
     @Override
     public String toString() {
         return "MemoryObjectField{" +
@@ -178,12 +176,11 @@ public class MemoryObjectField implements Closeable {
 
     public void forceSet(MemorySerializable object, boolean flush) throws IOException {
         ensureOpen();
+        ensureWritable();
         if ((mData.getModifiers() & Modifier.FINAL) != 0 && BuildData.CURRENT.getDebugStatus()) {
             System.out.println("[MemoryObjectField] Forcing set on final field: " + mData.getName());
         }
-        fields.set(object, 1, mData.fieldID);
-        if (flush)
-            pullMem();
+        ACCESS.setFieldValue(obj, mData.fieldID, object, true, flush);
     }
 
     public int getModifiers() {
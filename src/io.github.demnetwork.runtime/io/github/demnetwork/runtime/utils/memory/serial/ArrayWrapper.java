@@ -24,7 +24,6 @@
 package io.github.demnetwork.runtime.utils.memory.serial;
 
 import static io.github.demnetwork.runtime.utils.memory.serial.MemorySerializableRegistry.UNSAFE;
-import java.io.EOFException;
 import java.io.IOException;
 import java.lang.reflect.Array;
 import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.IntWrapper;
@@ -33,6 +32,8 @@ public final class ArrayWrapper<T extends MemorySerializable> implements Wrapper
     final T[] arr;
     private final Class<T> cls;
     public final int length;
+    private static final long ARR_OFFSET = MemoryUtils.fieldOffset(ArrayWrapper.class, "arr");
+    private static final long CLS_OFFSET = MemoryUtils.fieldOffset(ArrayWrapper.class, "cls");
 
     public ArrayWrapper(T[] arr) {
         this(arr, (Class<T>) MemorySerializable.class);
@@ -55,7 +56,7 @@ public final class ArrayWrapper<T extends MemorySerializable> implements Wrapper
 
     @Override
     public void writeObj(MemoryOutputStream mos) throws IOException {
-        mos.write(MemoryUtils.toBytes(MemorySerializableRegistry.getIdOfClass(this.cls)), 0, 8);
+        mos.writeId(MemorySerializableRegistry.getIdOfClass(this.cls));
         mos.writeObj(new IntWrapper(this.arr.length));
         for (int i = 0; i < this.arr.length; i++)
             mos.writeObj(arr[i]);
@@ -65,24 +66,15 @@ public final class ArrayWrapper<T extends MemorySerializable> implements Wrapper
     @Override
     public ArrayWrapper<?> readObj(MemoryInputStream mis) throws IOException {
         try {
-            byte[] arrctid = new byte[8];
-            int r = mis.read(arrctid, 0, 8);
-            if (r == -1)
-                throw new EOFException("reached EOF");
-            if (r < 8)
-                throw new IOException("Incomplete or Corrupt data");
-            Class<?> cls = MemorySerializableRegistry.getRegisteredClass(MemoryUtils.toLong(arrctid));
+            Class<?> cls = MemorySerializableRegistry.getRegisteredClass(mis.readId());
             int len = ((IntWrapper) mis.readObj()).intValue();
-            UNSAFE.putObject(this, UNSAFE.objectFieldOffset(ArrayWrapper.class.getDeclaredField("arr")),
-                    Array.newInstance(cls, len));
-            UNSAFE.putObject(this, UNSAFE.objectFieldOffset(ArrayWrapper.class.getDeclaredField("cls")), cls);
+            UNSAFE.putObject(this, ARR_OFFSET, Array.newInstance(cls, len));
+            UNSAFE.putObject(this, CLS_OFFSET, cls);
             for (int i = 0; i < len; i++)
                 this.arr[i] = (T) mis.readObj();
             return this;
         } catch (InstantiationException | ClassCastException e) {
             throw new IOException("Unable to deserialize", e);
-        } catch (ReflectiveOperationException e) {
-            throw new IOException("An unexpected exception while doing an Reflective Operation occurred!", e);
         }
     }
 
@@ -0,0 +1,222 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory.serial;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A {@link MemoryInputStream} that reads from a {@link ReadableByteChannel}
+ * through a reusable direct {@link ByteBuffer}.
+ * <p>
+ * Unlike {@link DelegatedMemoryInputStream}, small reads (such as the 8-byte ID
+ * read by {@link MemoryInputStream#readObj()}) are served from the buffer, so
+ * the channel is only hit once per buffer refill.
+ *
+ * @apiNote The channel should be in blocking mode. Reads on a non-blocking
+ *          channel that has no data available will spin until data arrives.
+ */
+public final class ChannelMemoryInputStream extends MemoryInputStream {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    private volatile boolean closed = false;
+    private final ReadableByteChannel ch;
+    private final ByteBuffer buf;
+    private boolean eof = false;
+
+    public ChannelMemoryInputStream(ReadableByteChannel ch) {
+        this(ch, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ChannelMemoryInputStream(ReadableByteChannel ch, int bufferSize) {
+        if (ch == null)
+            throw new NullPointerException();
+        if (bufferSize < 8)
+            throw new IllegalArgumentException("Buffer size must be at least 8 bytes");
+        this.ch = ch;
+        this.buf = ByteBuffer.allocateDirect(bufferSize);
+        this.buf.flip(); // Start empty
+    }
+
+    @Override
+    protected void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("Stream is closed");
+    }
+
+    /**
+     * Refills the buffer from the channel
+     *
+     * @return <code>false</code> if the channel reached its end and no bytes are
+     *         buffered
+     */
+    private boolean fill() throws IOException {
+        if (buf.hasRemaining())
+            return true;
+        if (eof)
+            return false;
+        buf.clear();
+        int r;
+        do {
+            r = ch.read(buf);
+        } while (r == 0);
+        buf.flip();
+        if (r == -1) {
+            eof = true;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        if (!fill())
+            return -1;
+        return Byte.toUnsignedInt(buf.get());
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException {
+        ensureOpen();
+        if (b == null)
+            throw new NullPointerException();
+        return this.read(b, 0, b.length);
+    }
+
+    /**
+     * Reads up to <code>len</code> bytes, blocking until either <code>len</code>
+     * bytes were read or the channel reached its end.
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (b == null)
+            throw new NullPointerException();
+        if (off < 0 || len < 0 || len > b.length - off)
+            throw new IndexOutOfBoundsException();
+        if (len == 0)
+            return 0;
+        int t = 0;
+        while (t < len) {
+            if (!fill())
+                break;
+            int n = Math.min(len - t, buf.remaining());
+            buf.get(b, off + t, n);
+            t += n;
+        }
+        return t == 0 ? -1 : t;
+    }
+
+    /**
+     * Reads bytes into the buffer, blocking until it is full or the channel
+     * reached its end. Once the buffered bytes were consumed, the bytes are read
+     * straight from the channel.
+     *
+     * @return The amount of bytes read, or -1 if the channel reached its end
+     */
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (dst == null)
+            throw new NullPointerException();
+        int t = 0;
+        if (buf.hasRemaining()) {
+            int n = Math.min(dst.remaining(), buf.remaining());
+            int lim = buf.limit();
+            buf.limit(buf.position() + n);
+            dst.put(buf);
+            buf.limit(lim);
+            t = n;
+        }
+        while (dst.hasRemaining() && !eof) {
+            int r = ch.read(dst);
+            if (r == -1)
+                eof = true;
+            else
+                t += r;
+        }
+        return t == 0 && eof ? -1 : t;
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        ensureOpen();
+        if (buf.remaining() >= 8)
+            return buf.getLong();
+        return super.readLong(); // Value spans a refill
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        ensureOpen();
+        if (buf.remaining() >= 4)
+            return buf.getInt();
+        return super.readInt();
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        ensureOpen();
+        if (buf.remaining() >= 2)
+            return buf.getChar();
+        return super.readChar();
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        ensureOpen();
+        long t = 0;
+        while (t < n) {
+            if (!fill())
+                break;
+            int s = (int) Math.min(n - t, buf.remaining());
+            buf.position(buf.position() + s);
+            t += s;
+        }
+        return t;
+    }
+
+    /** @return The amount of buffered bytes, that can be read without I/O */
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return buf.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        this.closed = true;
+        this.ch.close();
+    }
+
+    public ReadableByteChannel getChannel() {
+        return this.ch;
+    }
+
+    public int getBufferSize() {
+        return this.buf.capacity();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory.serial;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A {@link MemoryOutputStream} that writes to a {@link WritableByteChannel}
+ * through a reusable direct {@link ByteBuffer}.
+ * <p>
+ * Bytes are only written to the channel when the buffer is full, when
+ * {@link #flush()} is called or when this stream is closed. Data that was not
+ * flushed is <strong>not</strong> visible on the channel.
+ *
+ * @apiNote The channel should be in blocking mode. Flushing to a non-blocking
+ *          channel that cannot accept data will spin until it does.
+ */
+public final class ChannelMemoryOutputStream extends MemoryOutputStream {
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    private volatile boolean closed = false;
+    private final WritableByteChannel ch;
+    private final ByteBuffer buf;
+
+    public ChannelMemoryOutputStream(WritableByteChannel ch) {
+        this(ch, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ChannelMemoryOutputStream(WritableByteChannel ch, int bufferSize) {
+        if (ch == null)
+            throw new NullPointerException();
+        if (bufferSize < 8)
+            throw new IllegalArgumentException("Buffer size must be at least 8 bytes");
+        this.ch = ch;
+        this.buf = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    protected void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("This stream was closed");
+    }
+
+    /** Writes every buffered byte to the channel */
+    private void drain() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining())
+            ch.write(buf);
+        buf.clear();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (!buf.hasRemaining())
+            drain();
+        buf.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        ensureOpen();
+        if (b == null)
+            throw new NullPointerException();
+        this.write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (b == null)
+            throw new NullPointerException();
+        if (off < 0 || len < 0 || len > b.length - off)
+            throw new IndexOutOfBoundsException();
+        while (len > 0) {
+            if (!buf.hasRemaining())
+                drain();
+            int n = Math.min(len, buf.remaining());
+            buf.put(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    /** Makes sure <code>n</code> bytes fit in the buffer */
+    private void reserve(int n) throws IOException {
+        ensureOpen();
+        if (buf.remaining() < n)
+            drain();
+    }
+
+    @Override
+    public void writeLong(long v) throws IOException {
+        reserve(8);
+        buf.putLong(v);
+    }
+
+    @Override
+    public void writeInt(int v) throws IOException {
+        reserve(4);
+        buf.putInt(v);
+    }
+
+    @Override
+    public void writeChar(char v) throws IOException {
+        reserve(2);
+        buf.putChar(v);
+    }
+
+    /**
+     * Writes the remaining bytes of the buffer. Buffers larger than the free
+     * space are written straight to the channel, after the buffered bytes, so
+     * large direct buffers are never copied.
+     *
+     * @return The amount of bytes written
+     */
+    public int write(ByteBuffer src) throws IOException {
+        ensureOpen();
+        if (src == null)
+            throw new NullPointerException();
+        int n = src.remaining();
+        if (n <= buf.remaining()) {
+            buf.put(src);
+            return n;
+        }
+        drain();
+        while (src.hasRemaining())
+            ch.write(src);
+        return n;
+    }
+
+    /**
+     * Writes all buffered bytes to the channel. This does not force the channel
+     * to write its data to the storage device.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+    }
+
+    /** Flushes the buffered bytes, then closes the channel */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        try {
+            drain();
+        } finally {
+            this.closed = true;
+            this.ch.close();
+        }
+    }
+
+    /** @return The amount of bytes waiting to be flushed */
+    public int buffered() {
+        return this.buf.position();
+    }
+
+    public WritableByteChannel getChannel() {
+        return this.ch;
+    }
+
+    public int getBufferSize() {
+        return this.buf.capacity();
+    }
+}
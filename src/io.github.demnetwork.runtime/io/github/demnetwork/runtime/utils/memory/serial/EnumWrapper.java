@@ -50,6 +50,8 @@ import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.IntWra
 public final class EnumWrapper<E extends Enum<E>> implements MemorySerializable, Wrapper<E> {
     private final E value;
     private final Class<E> cls;
+    private static final long VALUE_OFFSET = MemoryUtils.fieldOffset(EnumWrapper.class, "value");
+    private static final long CLS_OFFSET = MemoryUtils.fieldOffset(EnumWrapper.class, "cls");
 
     public EnumWrapper(E value, Class<E> cls) {
         if (cls == null || value == null)
@@ -83,9 +85,8 @@ public final class EnumWrapper<E extends Enum<E>> implements MemorySerializable,
             Object[] arr = cls.getEnumConstants();
             if (arr == null)
                 throw new IOException("The provided class is not an enum");
-            UNSAFE.putObject(this, UNSAFE.objectFieldOffset(EnumWrapper.class.getDeclaredField("cls")), cls);
-            UNSAFE.putObject(this, UNSAFE.objectFieldOffset(EnumWrapper.class.getDeclaredField("value")),
-                    arr[((IntWrapper) mis.readObj()).getValue()]);
+            UNSAFE.putObject(this, CLS_OFFSET, cls);
+            UNSAFE.putObject(this, VALUE_OFFSET, arr[((IntWrapper) mis.readObj()).getValue()]);
             return this;
         } catch (ClassCastException | ReflectiveOperationException e) {
             throw new IOException("De-Serialization failed", e);
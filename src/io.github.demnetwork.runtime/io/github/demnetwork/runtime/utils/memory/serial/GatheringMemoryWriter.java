@@ -0,0 +1,213 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory.serial;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the encodings of a batch of {@link MemorySerializable} objects into
+ * a set of direct (off-heap) buffers, and writes the whole batch with a single
+ * {@link GatheringByteChannel#write(ByteBuffer[]) gathering write}.
+ * <p>
+ * The encoding is the same as the one produced by
+ * {@link MemoryOutputStream#writeObj(MemorySerializable)}, so the data can be
+ * read back with any {@link MemoryInputStream}.
+ * <p>
+ * Segments are reused between batches, so a writer that is used for a steady
+ * stream of batches stops allocating once it reached its working size.
+ * <p>
+ * <strong>Note:</strong> This class is not thread-safe.
+ */
+public final class GatheringMemoryWriter implements MemoryWriter, Closeable {
+    public static final int DEFAULT_SEGMENT_SIZE = 65536;
+    private final ArrayList<ByteBuffer> segments = new ArrayList<>();
+    private final int segmentSize;
+    private final SegmentOutputStream os = new SegmentOutputStream();
+    private int current = 0;
+    private int count = 0;
+    private volatile boolean closed = false;
+
+    public GatheringMemoryWriter() {
+        this(DEFAULT_SEGMENT_SIZE);
+    }
+
+    public GatheringMemoryWriter(int segmentSize) {
+        if (segmentSize < 8)
+            throw new IllegalArgumentException("Segment size must be at least 8 bytes");
+        this.segmentSize = segmentSize;
+        this.segments.add(ByteBuffer.allocateDirect(segmentSize));
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("Closed GatheringMemoryWriter");
+    }
+
+    /**
+     * Appends the object to the current batch. If the object cannot be encoded,
+     * the bytes it wrote are dropped and the batch is left as it was.
+     */
+    @Override
+    public void writeObj(MemorySerializable obj) throws IOException {
+        ensureOpen();
+        int seg = this.current;
+        int pos = segments.get(seg).position();
+        try {
+            os.writeObj(obj);
+        } catch (IOException | RuntimeException e) {
+            truncate(seg, pos);
+            throw e;
+        }
+        count++;
+    }
+
+    /** Drops the bytes written after the position in the segment */
+    private void truncate(int seg, int pos) {
+        for (int i = seg + 1; i <= current; i++)
+            segments.get(i).clear();
+        segments.get(seg).position(pos);
+        this.current = seg;
+    }
+
+    /** Appends every object of the list to the current batch */
+    public void writeAll(List<? extends MemorySerializable> objs) throws IOException {
+        ensureOpen();
+        if (objs == null)
+            throw new NullPointerException();
+        for (int i = 0; i < objs.size(); i++)
+            this.writeObj(objs.get(i));
+    }
+
+    /**
+     * Writes the current batch to the channel and starts a new batch. The batch
+     * is discarded even if the write fails.
+     *
+     * @param ch The destination channel, it should be in blocking mode
+     * @return The amount of bytes written
+     * @throws IOException If an I/O Operation went wrong
+     */
+    public long writeTo(GatheringByteChannel ch) throws IOException {
+        ensureOpen();
+        if (ch == null)
+            throw new NullPointerException();
+        int len = current + 1;
+        ByteBuffer[] srcs = new ByteBuffer[len];
+        for (int i = 0; i < len; i++) {
+            ByteBuffer b = segments.get(i);
+            b.flip();
+            srcs[i] = b;
+        }
+        long t = 0;
+        int first = 0;
+        try {
+            while (first < len) {
+                t += ch.write(srcs, first, len - first);
+                while (first < len && !srcs[first].hasRemaining())
+                    first++;
+            }
+        } finally {
+            reset();
+        }
+        return t;
+    }
+
+    /** Discards the current batch */
+    public void reset() {
+        for (int i = 0; i <= current; i++)
+            segments.get(i).clear();
+        this.current = 0;
+        this.count = 0;
+    }
+
+    /** @return The amount of bytes in the current batch */
+    public long size() {
+        long s = 0;
+        for (int i = 0; i <= current; i++) {
+            ByteBuffer b = segments.get(i);
+            s += b.position();
+        }
+        return s;
+    }
+
+    /** @return The amount of objects in the current batch */
+    public int getObjectCount() {
+        return this.count;
+    }
+
+    /**
+     * Releases the segments. Buffered data that was not written is discarded.
+     */
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        this.closed = true;
+        this.segments.clear();
+    }
+
+    private ByteBuffer next() {
+        current++;
+        if (current == segments.size())
+            segments.add(ByteBuffer.allocateDirect(segmentSize));
+        return segments.get(current);
+    }
+
+    private final class SegmentOutputStream extends MemoryOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            ByteBuffer seg = segments.get(current);
+            if (!seg.hasRemaining())
+                seg = next();
+            seg.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (b == null)
+                throw new NullPointerException();
+            if (off < 0 || len < 0 || len > b.length - off)
+                throw new IndexOutOfBoundsException();
+            ByteBuffer seg = segments.get(current);
+            while (len > 0) {
+                if (!seg.hasRemaining())
+                    seg = next();
+                int n = Math.min(len, seg.remaining());
+                seg.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        protected void ensureOpen() throws IOException {
+            GatheringMemoryWriter.this.ensureOpen();
+        }
+    }
+}
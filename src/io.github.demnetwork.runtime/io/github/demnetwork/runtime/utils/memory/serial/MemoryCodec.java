@@ -0,0 +1,130 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory.serial;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * A generated reader/writer for a {@link MemorySerializable} type.
+ * <p>
+ * The codec of a type is generated from its declared instance fields, by
+ * {@link #generate(Class)}, and is defined as a hidden class. The generated
+ * code accesses every field with a constant offset, so encoding and decoding
+ * does not use reflection.
+ * <p>
+ * Types registered with
+ * {@link MemorySerializableRegistry#registerWithCodec(long, Class)} are written
+ * and read through their codec, instead of their own
+ * {@link MemorySerializable#writeObj(MemoryOutputStream) writeObj} and
+ * {@link MemorySerializable#readObj(MemoryInputStream) readObj}.
+ * <p>
+ * Fields must be primitives or {@link MemorySerializable} types. Static and
+ * transient fields are skipped. Fields are encoded in class hierarchy order
+ * (superclass first), then by name.
+ */
+public abstract class MemoryCodec {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private final Class<?> type;
+    /** Types of the reference fields, used by the generated read method */
+    final Class<?>[] fieldTypes;
+
+    protected MemoryCodec(Class<?> type, Class<?>[] fieldTypes) {
+        this.type = type;
+        this.fieldTypes = fieldTypes;
+    }
+
+    /** @return The type this codec was generated for */
+    public final Class<?> getType() {
+        return this.type;
+    }
+
+    /** Writes the fields of the object, without its type ID */
+    public abstract void write(Object obj, MemoryOutputStream mos) throws IOException;
+
+    /**
+     * Reads the fields of the object
+     * 
+     * @return The object
+     */
+    public abstract Object read(Object obj, MemoryInputStream mis) throws IOException;
+
+    /**
+     * Generates a codec for the type
+     * 
+     * @throws IllegalArgumentException If a field has an unsupported type
+     */
+    public static MemoryCodec generate(Class<? extends MemorySerializable> cls) {
+        if (cls == null)
+            throw new NullPointerException();
+        MemoryCodecGenerator g = new MemoryCodecGenerator(cls);
+        try {
+            Class<?> c = LOOKUP.defineHiddenClass(g.generate(), true).lookupClass();
+            MethodHandle h = LOOKUP.findConstructor(c,
+                    MethodType.methodType(void.class, Class.class, Class[].class));
+            return (MemoryCodec) h.invoke(cls, g.getFieldTypes());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Unable to define the codec of " + cls.getName(), t);
+        }
+    }
+
+    // Called by generated code
+
+    static byte readByte(MemoryInputStream mis) throws IOException {
+        int b = mis.read();
+        if (b == -1)
+            throw new EOFException("Unexpected EOF");
+        return (byte) b;
+    }
+
+    static boolean readBoolean(MemoryInputStream mis) throws IOException {
+        return readByte(mis) != 0;
+    }
+
+    static Object readRef(MemoryInputStream mis, Class<?> type) throws IOException {
+        MemorySerializable o;
+        try {
+            o = mis.readObj();
+        } catch (InstantiationException e) {
+            throw new IOException("Unable to deserialize", e);
+        }
+        // MemoryOutputStream writes null as a NullWrapper, which is also an
+        // instance of fields declared as MemorySerializable
+        if (o instanceof NullWrapper && type != NullWrapper.class)
+            return null;
+        if (type.isInstance(o))
+            return o;
+        throw new IOException("Expected " + type.getName() + " but got " + o.getClass().getName());
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryCodec{type=" + this.type.getName() + "}";
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory.serial;
+
+import static io.github.demnetwork.runtime.utils.memory.serial.MemorySerializableRegistry.UNSAFE;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * Writes the class file of a {@link MemoryCodec} subclass.
+ * <p>
+ * The generated methods are straight-line code (no branches), so the class
+ * file needs no stack map frames.
+ */
+final class MemoryCodecGenerator {
+    private static final String PKG = "io/github/demnetwork/runtime/utils/memory/serial/";
+    private static final String CODEC = PKG + "MemoryCodec";
+    private static final String MOS = PKG + "MemoryOutputStream";
+    private static final String MIS = PKG + "MemoryInputStream";
+    private static final String REGISTRY = PKG + "MemorySerializableRegistry";
+    private static final String MS = PKG + "MemorySerializable";
+    private static final String UNSAFE_CLS = "sun/misc/Unsafe";
+    private static final int MAX_CODE = 65535;
+    // Opcodes
+    private static final int ALOAD_0 = 0x2a, ALOAD_1 = 0x2b, ALOAD_2 = 0x2c, LDC2_W = 0x14, SIPUSH = 0x11,
+            AALOAD = 0x32, I2C = 0x92, I2S = 0x93, RETURN = 0xb1, ARETURN = 0xb0, GETSTATIC = 0xb2,
+            GETFIELD = 0xb4, INVOKEVIRTUAL = 0xb6, INVOKESPECIAL = 0xb7, INVOKESTATIC = 0xb8, CHECKCAST = 0xc0;
+
+    private final Class<?> type;
+    private final Field[] fields;
+    private final ArrayList<Class<?>> refTypes = new ArrayList<>();
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream cp = new DataOutputStream(pool);
+    private final HashMap<String, Integer> entries = new HashMap<>();
+    private int poolCount = 1;
+
+    MemoryCodecGenerator(Class<?> type) {
+        this.type = type;
+        this.fields = collectFields(type);
+    }
+
+    private static Field[] collectFields(Class<?> type) {
+        ArrayList<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass())
+            hierarchy.add(0, c);
+        ArrayList<Field> fs = new ArrayList<>();
+        for (Class<?> c : hierarchy) {
+            Field[] declared = c.getDeclaredFields();
+            Arrays.sort(declared, new Comparator<Field>() {
+
+                @Override
+                public int compare(Field a, Field b) {
+                    return a.getName().compareTo(b.getName());
+                }
+
+            });
+            for (Field f : declared) {
+                if ((f.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) != 0)
+                    continue;
+                Class<?> t = f.getType();
+                if (!t.isPrimitive() && !MemorySerializable.class.isAssignableFrom(t))
+                    throw new IllegalArgumentException("Unsupported field type: " + f);
+                fs.add(f);
+            }
+        }
+        return fs.toArray(new Field[fs.size()]);
+    }
+
+    /** @return The types of the reference fields, in encoding order */
+    Class<?>[] getFieldTypes() {
+        return this.refTypes.toArray(new Class<?>[this.refTypes.size()]);
+    }
+
+    byte[] generate() {
+        try {
+            return generate0();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // In-memory streams
+        }
+    }
+
+    private byte[] generate0() throws IOException {
+        int thisClass = classRef(PKG + "MemoryCodecImpl");
+        int superClass = classRef(CODEC);
+        byte[] init = initCode();
+        byte[] write = writeCode();
+        byte[] read = readCode();
+        int code = utf8("Code");
+        int[] names = { utf8("<init>"), utf8("write"), utf8("read") };
+        int[] descs = { utf8("(Ljava/lang/Class;[Ljava/lang/Class;)V"), utf8("(Ljava/lang/Object;L" + MOS + ";)V"),
+                utf8("(Ljava/lang/Object;L" + MIS + ";)Ljava/lang/Object;") };
+        byte[][] codes = { init, write, read };
+        int[] stacks = { 3, 6, 8 };
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(61); // Java 17
+        out.writeShort(poolCount);
+        cp.flush();
+        pool.writeTo(out);
+        out.writeShort(0x0010 | 0x0020); // ACC_FINAL | ACC_SUPER
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(0); // Interfaces
+        out.writeShort(0); // Fields
+        out.writeShort(3);
+        for (int i = 0; i < 3; i++) {
+            out.writeShort(0x0001); // ACC_PUBLIC
+            out.writeShort(names[i]);
+            out.writeShort(descs[i]);
+            out.writeShort(1);
+            out.writeShort(code);
+            out.writeInt(12 + codes[i].length);
+            out.writeShort(stacks[i]);
+            out.writeShort(3); // this + 2 arguments
+            out.writeInt(codes[i].length);
+            out.write(codes[i]);
+            out.writeShort(0); // Exception table
+            out.writeShort(0); // Attributes
+        }
+        out.writeShort(0); // Class attributes
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private byte[] initCode() throws IOException {
+        Code c = new Code();
+        c.op(ALOAD_0);
+        c.op(ALOAD_1);
+        c.op(ALOAD_2);
+        c.op(INVOKESPECIAL, methodRef(CODEC, "<init>", "(Ljava/lang/Class;[Ljava/lang/Class;)V"));
+        c.op(RETURN);
+        return c.toByteArray();
+    }
+
+    private byte[] writeCode() throws IOException {
+        Code c = new Code();
+        int unsafe = fieldRef(REGISTRY, "UNSAFE", "Lsun/misc/Unsafe;");
+        for (Field f : fields) {
+            Class<?> t = f.getType();
+            c.op(ALOAD_2);
+            c.op(GETSTATIC, unsafe);
+            c.op(ALOAD_1);
+            c.op(LDC2_W, longConst(UNSAFE.objectFieldOffset(f)));
+            if (t == int.class) {
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "getInt", "(Ljava/lang/Object;J)I"));
+                c.op(INVOKEVIRTUAL, methodRef(MOS, "writeInt", "(I)V"));
+            } else if (t == long.class) {
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "getLong", "(Ljava/lang/Object;J)J"));
+                c.op(INVOKEVIRTUAL, methodRef(MOS, "writeLong", "(J)V"));
+            } else if (t == double.class) {
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "getDouble", "(Ljava/lang/Object;J)D"));
+                c.op(INVOKESTATIC, methodRef("java/lang/Double", "doubleToRawLongBits", "(D)J"));
+                c.op(INVOKEVIRTUAL, methodRef(MOS, "writeLong", "(J)V"));
+            } else if (t == float.class) {
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "getFloat", "(Ljava/lang/Object;J)F"));
+                c.op(INVOKESTATIC, methodRef("java/lang/Float", "floatToRawIntBits", "(F)I"));
+                c.op(INVOKEVIRTUAL, methodRef(MOS, "writeInt", "(I)V"));
+            } else if (t == char.class) {
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "getChar", "(Ljava/lang/Object;J)C"));
+                c.op(INVOKEVIRTUAL, methodRef(MOS, "writeChar", "(C)V"));
+            } else if (t == short.class) {
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "getShort", "(Ljava/lang/Object;J)S"));
+                c.op(I2C);
+                c.op(INVOKEVIRTUAL, methodRef(MOS, "writeChar", "(C)V"));
+            } else if (t == byte.class) {
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "getByte", "(Ljava/lang/Object;J)B"));
+                c.op(INVOKEVIRTUAL, methodRef(MOS, "write", "(I)V"));
+            } else if (t == boolean.class) {
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "getBoolean", "(Ljava/lang/Object;J)Z"));
+                c.op(INVOKEVIRTUAL, methodRef(MOS, "write", "(I)V"));
+            } else {
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "getObject", "(Ljava/lang/Object;J)Ljava/lang/Object;"));
+                c.op(CHECKCAST, classRef(MS));
+                c.op(INVOKEVIRTUAL, methodRef(MOS, "writeObj", "(L" + MS + ";)V"));
+            }
+        }
+        c.op(RETURN);
+        return c.toByteArray();
+    }
+
+    private byte[] readCode() throws IOException {
+        Code c = new Code();
+        int unsafe = fieldRef(REGISTRY, "UNSAFE", "Lsun/misc/Unsafe;");
+        for (Field f : fields) {
+            Class<?> t = f.getType();
+            c.op(GETSTATIC, unsafe);
+            c.op(ALOAD_1);
+            c.op(LDC2_W, longConst(UNSAFE.objectFieldOffset(f)));
+            if (t == int.class) {
+                c.op(ALOAD_2);
+                c.op(INVOKEVIRTUAL, methodRef(MIS, "readInt", "()I"));
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "putInt", "(Ljava/lang/Object;JI)V"));
+            } else if (t == long.class) {
+                c.op(ALOAD_2);
+                c.op(INVOKEVIRTUAL, methodRef(MIS, "readLong", "()J"));
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "putLong", "(Ljava/lang/Object;JJ)V"));
+            } else if (t == double.class) {
+                c.op(ALOAD_2);
+                c.op(INVOKEVIRTUAL, methodRef(MIS, "readLong", "()J"));
+                c.op(INVOKESTATIC, methodRef("java/lang/Double", "longBitsToDouble", "(J)D"));
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "putDouble", "(Ljava/lang/Object;JD)V"));
+            } else if (t == float.class) {
+                c.op(ALOAD_2);
+                c.op(INVOKEVIRTUAL, methodRef(MIS, "readInt", "()I"));
+                c.op(INVOKESTATIC, methodRef("java/lang/Float", "intBitsToFloat", "(I)F"));
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "putFloat", "(Ljava/lang/Object;JF)V"));
+            } else if (t == char.class) {
+                c.op(ALOAD_2);
+                c.op(INVOKEVIRTUAL, methodRef(MIS, "readChar", "()C"));
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "putChar", "(Ljava/lang/Object;JC)V"));
+            } else if (t == short.class) {
+                c.op(ALOAD_2);
+                c.op(INVOKEVIRTUAL, methodRef(MIS, "readChar", "()C"));
+                c.op(I2S);
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "putShort", "(Ljava/lang/Object;JS)V"));
+            } else if (t == byte.class) {
+                c.op(ALOAD_2);
+                c.op(INVOKESTATIC, methodRef(CODEC, "readByte", "(L" + MIS + ";)B"));
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "putByte", "(Ljava/lang/Object;JB)V"));
+            } else if (t == boolean.class) {
+                c.op(ALOAD_2);
+                c.op(INVOKESTATIC, methodRef(CODEC, "readBoolean", "(L" + MIS + ";)Z"));
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "putBoolean", "(Ljava/lang/Object;JZ)V"));
+            } else {
+                // The type is passed through fieldTypes, as the class may not be accessible here
+                c.op(ALOAD_2);
+                c.op(ALOAD_0);
+                c.op(GETFIELD, fieldRef(CODEC, "fieldTypes", "[Ljava/lang/Class;"));
+                c.op(SIPUSH, refTypes.size());
+                c.op(AALOAD);
+                c.op(INVOKESTATIC, methodRef(CODEC, "readRef",
+                        "(L" + MIS + ";Ljava/lang/Class;)Ljava/lang/Object;"));
+                c.op(INVOKEVIRTUAL, methodRef(UNSAFE_CLS, "putObject", "(Ljava/lang/Object;JLjava/lang/Object;)V"));
+                refTypes.add(t);
+            }
+        }
+        c.op(ALOAD_1);
+        c.op(ARETURN);
+        return c.toByteArray();
+    }
+
+    // Constant pool
+
+    /** Allocates a constant pool index for the key */
+    private int entry(String key, int slots) {
+        int idx = poolCount;
+        poolCount += slots;
+        if (poolCount > 0xFFFF)
+            throw new IllegalArgumentException("Too many fields in " + type.getName());
+        entries.put(key, Integer.valueOf(idx));
+        return idx;
+    }
+
+    private int utf8(String s) throws IOException {
+        Integer e = entries.get("U" + s);
+        if (e != null)
+            return e.intValue();
+        int i = entry("U" + s, 1);
+        cp.writeByte(1);
+        cp.writeUTF(s);
+        return i;
+    }
+
+    private int classRef(String name) throws IOException {
+        Integer e = entries.get("C" + name);
+        if (e != null)
+            return e.intValue();
+        int n = utf8(name);
+        int i = entry("C" + name, 1);
+        cp.writeByte(7);
+        cp.writeShort(n);
+        return i;
+    }
+
+    private int nameAndType(String name, String desc) throws IOException {
+        Integer e = entries.get("N" + name + ":" + desc);
+        if (e != null)
+            return e.intValue();
+        int n = utf8(name);
+        int d = utf8(desc);
+        int i = entry("N" + name + ":" + desc, 1);
+        cp.writeByte(12);
+        cp.writeShort(n);
+        cp.writeShort(d);
+        return i;
+    }
+
+    private int member(int tag, String owner, String name, String desc) throws IOException {
+        String key = tag + owner + "." + name + ":" + desc;
+        Integer e = entries.get(key);
+        if (e != null)
+            return e.intValue();
+        int c = classRef(owner);
+        int nt = nameAndType(name, desc);
+        int i = entry(key, 1);
+        cp.writeByte(tag);
+        cp.writeShort(c);
+        cp.writeShort(nt);
+        return i;
+    }
+
+    private int fieldRef(String owner, String name, String desc) throws IOException {
+        return member(9, owner, name, desc);
+    }
+
+    private int methodRef(String owner, String name, String desc) throws IOException {
+        return member(10, owner, name, desc);
+    }
+
+    private int longConst(long v) throws IOException {
+        Integer e = entries.get("J" + v);
+        if (e != null)
+            return e.intValue();
+        int i = entry("J" + v, 2); // Longs take two slots
+        cp.writeByte(5);
+        cp.writeLong(v);
+        return i;
+    }
+
+    private final class Code {
+        private final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+
+        void op(int opcode) {
+            buf.write(opcode);
+        }
+
+        /** Writes an instruction with a 2-byte operand */
+        void op(int opcode, int operand) {
+            buf.write(opcode);
+            buf.write(operand >>> 8);
+            buf.write(operand);
+        }
+
+        byte[] toByteArray() {
+            if (buf.size() > MAX_CODE)
+                throw new IllegalArgumentException("Too many fields in " + type.getName());
+            return buf.toByteArray();
+        }
+    }
+}
@@ -31,8 +31,13 @@ import java.io.InputStream;
 import java.lang.reflect.Modifier;
 
 import io.github.demnetwork.runtime.internal.BuildData;
+import io.github.demnetwork.runtime.internal.secret.ByteSwapper;
+import sun.misc.Unsafe;
 
 public abstract class MemoryInputStream extends InputStream implements MemoryReader {
+    private final byte[] scratch = new byte[8];
+    private byte[] chunk = null;
+    private int idFormat = MemoryOutputStream.CURRENT_FORMAT;
 
     /**
      * 
@@ -44,17 +49,14 @@ public abstract class MemoryInputStream extends InputStream implements MemoryRea
      */
     public MemorySerializable readObj() throws IOException, InstantiationException {
         ensureOpen();
-        byte[] longVal = new byte[8];
-        int r = this.read(longVal, 0, 8);
-        if (r == -1)
-            throw new EOFException("Unexpected EOF");
-        if (r < 8)
-            throw new IOException("Corrupt or Incomplete data");
-        long id = MemoryUtils.toLong(longVal);
+        long id = readId();
         Class<? extends MemorySerializable> cls = MemorySerializableRegistry.getRegisteredClass(id);
         if (cls == MemorySerializable.class)
             throw new IOException("ID was not registered properly");
         MemorySerializable obj = (MemorySerializable) UNSAFE.allocateInstance(cls);
+        MemoryCodec codec = MemorySerializableRegistry.getCodec(cls);
+        if (codec != null)
+            return (MemorySerializable) codec.read(obj, this);
         return obj.readObj(this);
     }
 
@@ -73,24 +75,145 @@ public abstract class MemoryInputStream extends InputStream implements MemoryRea
             throw new NullPointerException();
         if (cls.isInterface() || Modifier.isAbstract(cls.getModifiers()))
             throw new InstantiationException("Abstract Classes cannot be instantiated");
-        byte[] buf = new byte[8];
-        int r = this.read(buf, 0, 8); // Skip ID
+        long id = readId(); // Skip ID
         if (BuildData.CURRENT.getDebugStatus()) {
             long tid = MemorySerializableRegistry.getIdOfClass(cls);
-            long id = MemoryUtils.toLong(buf);
             Class<?> srcCls = MemorySerializableRegistry.getRegisteredClass(id);
             System.out.println("[MemoryInputStream] Conversion: "
                     + (srcCls == MemorySerializable.class ? "UnknownClass" : srcCls.getName())
                     + "(" + (id == 0 ? "NoID" : id) + ") >>> " + cls.getName() + "(" + (tid == 0 ? "NoID" : tid)
                     + ")");
         }
-        if (r == -1)
-            throw new EOFException("Unexpected EOF");
-        if (r < 8)
-            throw new IOException("Corrupt or Incomplete data");
         T obj = (T) UNSAFE.allocateInstance(cls);
+        MemoryCodec codec = MemorySerializableRegistry.getCodec(cls);
+        if (codec != null)
+            return (T) codec.read(obj, this);
         return (T) obj.readObj(this);
     }
 
+    /**
+     * Reads a type ID, in either {@link MemoryOutputStream#FORMAT_V1} or
+     * {@link MemoryOutputStream#FORMAT_V2}. The format is told apart by the first
+     * byte, because IDs that start with a compact tag cannot be registered.
+     * 
+     * @throws EOFException If the stream ended before the ID was read
+     */
+    public long readId() throws IOException {
+        int b = read();
+        if (b == -1)
+            throw new EOFException("Unexpected EOF");
+        if ((b & 0xF0) != MemorySerializableRegistry.TAG_BUILTIN) {
+            byte[] s = readScratch(7);
+            long id = (long) b << 56;
+            for (int i = 0; i < 7; i++)
+                id |= (s[i] & 0xFFL) << (48 - 8 * i);
+            this.idFormat = MemoryOutputStream.FORMAT_V1;
+            return id;
+        }
+        this.idFormat = MemoryOutputStream.FORMAT_V2;
+        if (b != MemorySerializableRegistry.TAG_VARINT)
+            return MemorySerializableRegistry.builtinId(b & 0x0F);
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int c = read();
+            if (c == -1)
+                throw new EOFException("Corrupt or Incomplete data");
+            v |= (long) (c & 0x7F) << shift;
+            if ((c & 0x80) == 0)
+                return (v >>> 1) ^ -(v & 1);
+        }
+        throw new IOException("Corrupt or Incomplete data");
+    }
+
+    /**
+     * @return The format of the last type ID read by this stream
+     * @see MemoryOutputStream#setFormat(int)
+     */
+    public int getIdFormat() {
+        return this.idFormat;
+    }
+
+    /**
+     * Reads exactly <code>len</code> bytes into the scratch buffer
+     * 
+     * @throws EOFException If the stream ended before
+     */
+    private byte[] readScratch(int len) throws IOException {
+        readFully(scratch, 0, len);
+        return scratch;
+    }
+
+    /**
+     * Reads exactly <code>len</code> bytes into the array
+     * 
+     * @throws EOFException If the stream ended before <code>len</code> bytes were
+     *                      read
+     */
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        int t = 0;
+        while (t < len) {
+            int r = this.read(b, off + t, len - t);
+            if (r == -1)
+                throw new EOFException(t == 0 ? "Unexpected EOF" : "Corrupt or Incomplete data");
+            t += r;
+        }
+    }
+
+    /**
+     * Reads contiguous big-endian data into the elements of a primitive array.
+     * Subclasses should override this method when they can copy the data directly
+     * from their source.
+     * 
+     * @param arr A primitive array
+     * @param off Index of the first element
+     * @param len Amount of elements
+     * @throws EOFException If the stream ended before all elements were read
+     */
+    public void readArray(Object arr, int off, int len) throws IOException {
+        int scale = MemoryUtils.arrayScale(arr, off, len);
+        if (chunk == null)
+            chunk = new byte[4096];
+        long dst = UNSAFE.arrayBaseOffset(arr.getClass()) + (long) off * scale;
+        long rem = (long) len * scale;
+        while (rem > 0) {
+            int n = (int) Math.min(rem, chunk.length);
+            readFully(chunk, 0, n);
+            if (!MemoryUtils.BIG_ENDIAN)
+                ByteSwapper.swap(chunk, Unsafe.ARRAY_BYTE_BASE_OFFSET, n, scale);
+            UNSAFE.copyMemory(chunk, Unsafe.ARRAY_BYTE_BASE_OFFSET, arr, dst, n);
+            dst += n;
+            rem -= n;
+        }
+    }
+
+    /**
+     * Reads a big-endian long. Subclasses should override this method when they
+     * can read the value directly from their source.
+     * 
+     * @throws EOFException If the stream ended before 8 bytes were read
+     */
+    public long readLong() throws IOException {
+        return MemoryUtils.getLong(readScratch(8), 0);
+    }
+
+    /**
+     * Reads a big-endian int
+     * 
+     * @throws EOFException If the stream ended before 4 bytes were read
+     */
+    public int readInt() throws IOException {
+        return MemoryUtils.getInt(readScratch(4), 0);
+    }
+
+    /**
+     * Reads a big-endian char
+     * 
+     * @throws EOFException If the stream ended before 2 bytes were read
+     */
+    public char readChar() throws IOException {
+        byte[] b = readScratch(2);
+        return (char) (((b[0] & 0xFF) << 8) | (b[1] & 0xFF));
+    }
+
     protected abstract void ensureOpen() throws IOException;
 }
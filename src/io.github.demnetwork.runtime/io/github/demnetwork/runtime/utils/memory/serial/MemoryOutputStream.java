@@ -23,11 +23,27 @@
 
 package io.github.demnetwork.runtime.utils.memory.serial;
 
+import static io.github.demnetwork.runtime.utils.memory.serial.MemorySerializableRegistry.UNSAFE;
 import java.io.IOException;
 import java.io.OutputStream;
+import io.github.demnetwork.runtime.internal.secret.ByteSwapper;
+import sun.misc.Unsafe;
 
 public abstract class MemoryOutputStream extends OutputStream implements MemoryWriter {
+    /** Size of a type ID in {@link #FORMAT_V1} */
     public static final long ID_SIZE = 8;
+    /** Type IDs are written as 8-byte big-endian longs */
+    public static final int FORMAT_V1 = 1;
+    /**
+     * Built-in type IDs are written as a 1-byte tag, other IDs as a tag followed
+     * by a zig-zag varint
+     */
+    public static final int FORMAT_V2 = 2;
+    /** The format used by new streams */
+    public static final int CURRENT_FORMAT = FORMAT_V2;
+    private final byte[] scratch = new byte[8];
+    private byte[] chunk = null;
+    private int format = CURRENT_FORMAT;
 
     public void writeObj(MemorySerializable obj) throws IOException {
         ensureOpen();
@@ -39,9 +55,130 @@ public abstract class MemoryOutputStream extends OutputStream implements MemoryW
         long id = MemorySerializableRegistry.getIdOfClass(obj.getClass());
         if (id == 0)
             throw new IllegalArgumentException("ID was not registered");
-        byte[] bytes = MemoryUtils.toBytes(id);
-        write(bytes, 0, 8);
-        obj.writeObj(this);
+        writeId(id);
+        MemoryCodec codec = MemorySerializableRegistry.getCodec(obj.getClass());
+        if (codec != null) {
+            codec.write(obj, this);
+        } else {
+            obj.writeObj(this);
+        }
+    }
+
+    /**
+     * Writes the elements of a primitive array as contiguous big-endian data,
+     * without a length. Subclasses should override this method when they can copy
+     * the data directly to their target.
+     * 
+     * @param arr A primitive array
+     * @param off Index of the first element
+     * @param len Amount of elements
+     */
+    public void writeArray(Object arr, int off, int len) throws IOException {
+        int scale = MemoryUtils.arrayScale(arr, off, len);
+        if (chunk == null)
+            chunk = new byte[4096];
+        long src = UNSAFE.arrayBaseOffset(arr.getClass()) + (long) off * scale;
+        long rem = (long) len * scale;
+        while (rem > 0) {
+            int n = (int) Math.min(rem, chunk.length);
+            UNSAFE.copyMemory(arr, src, chunk, Unsafe.ARRAY_BYTE_BASE_OFFSET, n);
+            if (!MemoryUtils.BIG_ENDIAN)
+                ByteSwapper.swap(chunk, Unsafe.ARRAY_BYTE_BASE_OFFSET, n, scale);
+            write(chunk, 0, n);
+            src += n;
+            rem -= n;
+        }
+    }
+
+    /**
+     * Writes a type ID in the format of this stream. Every
+     * {@link MemoryInputStream} can read both formats.
+     */
+    public void writeId(long id) throws IOException {
+        if (format == FORMAT_V1) {
+            writeLong(id);
+            return;
+        }
+        int index = MemorySerializableRegistry.builtinIndex(id);
+        if (index >= 0) {
+            write(MemorySerializableRegistry.TAG_BUILTIN | index);
+            return;
+        }
+        int i = 0;
+        scratch[i++] = (byte) MemorySerializableRegistry.TAG_VARINT;
+        long v = (id << 1) ^ (id >> 63); // Zig-zag, so small negative IDs stay short
+        while ((v & ~0x7FL) != 0L) {
+            if (i == scratch.length) {
+                write(scratch, 0, i);
+                i = 0;
+            }
+            scratch[i++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        if (i == scratch.length) {
+            write(scratch, 0, i);
+            i = 0;
+        }
+        scratch[i++] = (byte) v;
+        write(scratch, 0, i);
+    }
+
+    /**
+     * @return The size of the type ID once written by
+     *         {@link #writeId(long)} in the format
+     */
+    public static int idLength(long id, int format) {
+        if (format == FORMAT_V1)
+            return (int) ID_SIZE;
+        if (format != FORMAT_V2)
+            throw new IllegalArgumentException("Unknown format: " + format);
+        if (MemorySerializableRegistry.builtinIndex(id) >= 0)
+            return 1;
+        long v = (id << 1) ^ (id >> 63);
+        int n = 2; // The tag and the last byte
+        while ((v & ~0x7FL) != 0L) {
+            n++;
+            v >>>= 7;
+        }
+        return n;
+    }
+
+    /** @return The format of the type IDs written by this stream */
+    public int getFormat() {
+        return this.format;
+    }
+
+    /**
+     * Sets the format of the type IDs written by this stream. Use
+     * {@link #FORMAT_V1} to produce data for readers that predate
+     * {@link #FORMAT_V2}.
+     */
+    public void setFormat(int format) {
+        if (format != FORMAT_V1 && format != FORMAT_V2)
+            throw new IllegalArgumentException("Unknown format: " + format);
+        this.format = format;
+    }
+
+    /**
+     * Writes a big-endian long. Subclasses should override this method when they
+     * can write the value directly to their target.
+     */
+    public void writeLong(long v) throws IOException {
+        MemoryUtils.putLong(scratch, 0, v);
+        write(scratch, 0, 8);
+    }
+
+    /** Writes a big-endian int */
+    public void writeInt(int v) throws IOException {
+        MemoryUtils.putInt(scratch, 0, v);
+        write(scratch, 0, 4);
+    }
+
+    /** Writes a big-endian char */
+    public void writeChar(char v) throws IOException {
+        scratch[0] = (byte) (v >>> 8);
+        scratch[1] = (byte) v;
+        write(scratch, 0, 2);
     }
 
     protected abstract void ensureOpen() throws IOException;
@@ -24,16 +24,46 @@
 package io.github.demnetwork.runtime.utils.memory.serial;
 
 import java.lang.reflect.Field;
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import sun.misc.Unsafe;
 import io.github.demnetwork.runtime.internal.secret.Checker;
+import io.github.demnetwork.runtime.utils.memory.MemoryObjectShape;
 import io.github.demnetwork.runtime.utils.memory.SyntheticMemoryStruct;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveArrayWrappers.*;
 import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.*;
 
 public final class MemorySerializableRegistry {
     static final Unsafe UNSAFE;
     static final ConcurrentHashMap<Long, Class<? extends MemorySerializable>> registry = new ConcurrentHashMap<>(); // Registry
     static final ConcurrentHashMap<Class<? extends MemorySerializable>, Long> cRegistry = new ConcurrentHashMap<>(); // Counter_Registry
+    /** Offset of ID 0 in the dense tables, which cover the IDs from -128 to 127 */
+    private static final int DENSE_BIAS = 128;
+    private static final int DENSE_SIZE = 256;
+    /**
+     * Copy-on-write table of the classes with small IDs, so lookups of built-in
+     * and compact user IDs are an array load
+     */
+    private static volatile Class<?>[] dense = new Class<?>[DENSE_SIZE];
+    /** Cache of {@link #cRegistry}, invalidated when a class is (un)registered */
+    private static final ClassValue<Long> IDS = new ClassValue<>() {
+
+        @Override
+        protected Long computeValue(Class<?> type) {
+            return cRegistry.getOrDefault(type, Long.valueOf(0L));
+        }
+
+    };
+    static final ConcurrentHashMap<Class<?>, MemoryCodec> codecs = new ConcurrentHashMap<>();
+    /** Cache of {@link #codecs}, holding <code>null</code> for types without codec */
+    private static final ClassValue<MemoryCodec> CODECS = new ClassValue<>() {
+
+        @Override
+        protected MemoryCodec computeValue(Class<?> type) {
+            return codecs.get(type);
+        }
+
+    };
     public static final Class<?> NULL_WRAPPER = register(1L, NullWrapper.class);
     public static final Class<?> DOUBLE_WRAPPER = register(-1L, DoubleWrapper.class);
     public static final Class<?> LONG_WRAPPER = register(-2L, LongWrapper.class);
@@ -43,10 +73,34 @@ public final class MemorySerializableRegistry {
     public static final Class<?> ARRAY_WRAPPER = register(-6L, ArrayWrapper.class);
     public static final Class<?> ENUM_WRAPPER = register(-7L, EnumWrapper.class);
     public static final Class<?> BOOLEAN_WRAPPER = register(-8L, BooleanWrapper.class);
+    public static final Class<?> MEMORY_OBJECT_SHAPE = register(-9L, MemoryObjectShape.class);
+    public static final Class<?> BOOLEAN_ARRAY_WRAPPER = register(-10L, BooleanArrayWrapper.class);
+    public static final Class<?> BYTE_ARRAY_WRAPPER = register(-11L, ByteArrayWrapper.class);
+    public static final Class<?> CHAR_ARRAY_WRAPPER = register(-12L, CharArrayWrapper.class);
+    public static final Class<?> SHORT_ARRAY_WRAPPER = register(-13L, ShortArrayWrapper.class);
+    public static final Class<?> INT_ARRAY_WRAPPER = register(-14L, IntArrayWrapper.class);
+    public static final Class<?> LONG_ARRAY_WRAPPER = register(-15L, LongArrayWrapper.class);
+    public static final Class<?> FLOAT_ARRAY_WRAPPER = register(-16L, FloatArrayWrapper.class);
+    public static final Class<?> DOUBLE_ARRAY_WRAPPER = register(-17L, DoubleArrayWrapper.class);
     public static final Class<?> SYNTHETIC_MEMORY_STRUCT = register(Long.MAX_VALUE, SyntheticMemoryStruct.class);
     private static final Class<?>[] NON_UNREGISTRABLE_CLASSES = new Class[] { NULL_WRAPPER, DOUBLE_WRAPPER,
             LONG_WRAPPER, INT_WRAPPER, CHAR_WRAPPER, STRING_WRAPPER, ARRAY_WRAPPER, ENUM_WRAPPER, BOOLEAN_WRAPPER,
-            SYNTHETIC_MEMORY_STRUCT, MemorySerializable.class };
+            MEMORY_OBJECT_SHAPE, BOOLEAN_ARRAY_WRAPPER, BYTE_ARRAY_WRAPPER, CHAR_ARRAY_WRAPPER, SHORT_ARRAY_WRAPPER,
+            INT_ARRAY_WRAPPER, LONG_ARRAY_WRAPPER, FLOAT_ARRAY_WRAPPER, DOUBLE_ARRAY_WRAPPER, SYNTHETIC_MEMORY_STRUCT,
+            MemorySerializable.class };
+
+    /**
+     * IDs of the built-in types, in the order of their compact tags
+     * 
+     * @see MemoryOutputStream#writeId(long)
+     */
+    private static final long[] BUILTIN_IDS = new long[] { 1L, -1L, -2L, -3L, -4L, -5L, -6L, -7L, -8L,
+            Long.MAX_VALUE, -9L };
+    private static final byte[] BUILTIN_INDEX = new byte[DENSE_SIZE];
+    /** First byte of a compact ID that holds a built-in index */
+    static final int TAG_BUILTIN = 0xC0;
+    /** First byte of a compact ID that is followed by a zig-zag varint */
+    static final int TAG_VARINT = 0xCF;
 
     static {
         try {
@@ -57,6 +111,14 @@ public final class MemorySerializableRegistry {
             throw new ExceptionInInitializerError(e);
         }
         onInit();
+        Arrays.fill(BUILTIN_INDEX, (byte) -1);
+        for (int i = 0; i < BUILTIN_IDS.length; i++)
+            if (isDense(BUILTIN_IDS[i]))
+                BUILTIN_INDEX[(int) BUILTIN_IDS[i] + DENSE_BIAS] = (byte) i;
+    }
+
+    private static boolean isDense(long id) {
+        return id >= -DENSE_BIAS && id < DENSE_SIZE - DENSE_BIAS;
     }
 
     private static final void onInit() {
@@ -64,29 +126,96 @@ public final class MemorySerializableRegistry {
         cRegistry.put(MemorySerializable.class, Long.valueOf(0L));
     }
 
-    public static <T extends MemorySerializable> Class<T> register(long id, Class<T> clazz) {
+    public static synchronized <T extends MemorySerializable> Class<T> register(long id, Class<T> clazz) {
         if (clazz == null)
             throw new NullPointerException();
         if (clazz == MemorySerializable.class)
             throw new IllegalArgumentException("Illegal Class");
+        if (isReservedId(id))
+            throw new IllegalArgumentException("ID is reserved for the compact ID encoding: " + id);
         if (registry.containsKey(id))
             throw new IllegalStateException("Duplicate ID: " + id);
         if (cRegistry.containsKey(clazz))
             throw new IllegalStateException("Class already registered: " + clazz);
         registry.put(Long.valueOf(id), clazz);
         cRegistry.put(clazz, Long.valueOf(id));
+        if (isDense(id)) {
+            Class<?>[] d = dense.clone();
+            d[(int) id + DENSE_BIAS] = clazz;
+            dense = d;
+        }
+        IDS.remove(clazz);
+        return clazz;
+    }
+
+    /**
+     * Registers the class, with a {@link MemoryCodec#generate(Class) generated
+     * codec}. Streams write and read instances of the class through the codec,
+     * instead of its <code>writeObj</code> and <code>readObj</code> methods.
+     * 
+     * @throws IllegalArgumentException If the class has a field that the codec
+     *                                  cannot encode
+     */
+    public static synchronized <T extends MemorySerializable> Class<T> registerWithCodec(long id, Class<T> clazz) {
+        MemoryCodec codec = MemoryCodec.generate(clazz); // Fails before registering
+        // The codec is published first, so a stream that sees the ID also sees it
+        MemoryCodec prev = codecs.put(clazz, codec);
+        CODECS.remove(clazz);
+        try {
+            register(id, clazz);
+        } catch (RuntimeException e) {
+            if (prev != null) // The class was registered already
+                codecs.put(clazz, prev);
+            else
+                codecs.remove(clazz);
+            CODECS.remove(clazz);
+            throw e;
+        }
         return clazz;
     }
 
+    /** @return The codec of the class, or <code>null</code> if it has none */
+    public static MemoryCodec getCodec(Class<?> cls) {
+        return CODECS.get(cls);
+    }
+
+    /**
+     * An ID is reserved when its most significant byte is a compact ID tag, as it
+     * could not be told apart from a compact ID when reading the legacy format.
+     */
+    static boolean isReservedId(long id) {
+        return (int) (id >>> 56 & 0xF0) == TAG_BUILTIN;
+    }
+
+    /** @return The index of the built-in ID, or -1 if it is not built-in */
+    static int builtinIndex(long id) {
+        if (isDense(id))
+            return BUILTIN_INDEX[(int) id + DENSE_BIAS];
+        for (int i = 0; i < BUILTIN_IDS.length; i++)
+            if (BUILTIN_IDS[i] == id)
+                return i;
+        return -1;
+    }
+
+    /** @return The built-in ID at the index, or 0 if there is no such ID */
+    static long builtinId(int index) {
+        return index < BUILTIN_IDS.length ? BUILTIN_IDS[index] : 0L;
+    }
+
+    @SuppressWarnings("unchecked")
     public static Class<? extends MemorySerializable> getRegisteredClass(long id) {
+        if (isDense(id)) {
+            Class<?> c = dense[(int) id + DENSE_BIAS];
+            return c != null ? (Class<? extends MemorySerializable>) c : MemorySerializable.class;
+        }
         return registry.getOrDefault(Long.valueOf(id), MemorySerializable.class);
     }
 
     public static long getIdOfClass(Class<? extends MemorySerializable> cls) {
-        return cRegistry.getOrDefault(cls, 0L).longValue();
+        return IDS.get(cls).longValue();
     }
 
-    public static boolean unregister(Class<? extends MemorySerializable> clazz) {
+    public static synchronized boolean unregister(Class<? extends MemorySerializable> clazz) {
         if (clazz == null)
             throw new NullPointerException("Null Class");
         if (Checker.strictContainsObject(NON_UNREGISTRABLE_CLASSES, clazz))
@@ -94,6 +223,14 @@ public final class MemorySerializableRegistry {
         Long id = cRegistry.remove(clazz);
         if (id != null) {
             registry.remove(id);
+            if (isDense(id.longValue())) {
+                Class<?>[] d = dense.clone();
+                d[(int) id.longValue() + DENSE_BIAS] = null;
+                dense = d;
+            }
+            IDS.remove(clazz);
+            if (codecs.remove(clazz) != null)
+                CODECS.remove(clazz);
             return true;
         }
         return false;
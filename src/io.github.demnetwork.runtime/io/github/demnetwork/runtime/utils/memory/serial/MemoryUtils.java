@@ -23,24 +23,82 @@
 
 package io.github.demnetwork.runtime.utils.memory.serial;
 
+import static io.github.demnetwork.runtime.utils.memory.serial.MemorySerializableRegistry.UNSAFE;
+import java.nio.ByteOrder;
+
 final class MemoryUtils {
+    static final boolean BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
+    /**
+     * Checks the bounds of a primitive array region
+     * 
+     * @return The size of an element of the array, in bytes
+     */
+    static int arrayScale(Object arr, int off, int len) {
+        if (arr == null)
+            throw new NullPointerException();
+        Class<?> cls = arr.getClass();
+        if (!cls.isArray() || !cls.getComponentType().isPrimitive())
+            throw new IllegalArgumentException("Not a primitive array: " + cls.getName());
+        if (off < 0 || len < 0 || len > java.lang.reflect.Array.getLength(arr) - off)
+            throw new IndexOutOfBoundsException();
+        return UNSAFE.arrayIndexScale(cls);
+    }
+
+    /**
+     * Resolves the offset of a declared field, meant to be used when
+     * initializing static finals, so deserialization does not have to do
+     * reflective lookups.
+     * 
+     * @throws ExceptionInInitializerError If the field does not exist
+     */
+    static long fieldOffset(Class<?> cls, String name) {
+        try {
+            return UNSAFE.objectFieldOffset(cls.getDeclaredField(name));
+        } catch (NoSuchFieldException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     public static long toLong(byte[] bytes) {
         if (bytes == null)
             throw new NullPointerException();
         if (bytes.length != 8)
             throw new IllegalArgumentException();
-        final byte[] longVal = bytes.clone();
-        return ((longVal[0] & 0xFFL) << 56) | ((longVal[1] & 0xFFL) << 48) | ((longVal[2] & 0xFFL) << 40)
-                | ((longVal[3] & 0xFFL) << 32) | ((longVal[4] & 0xFFL) << 24) | ((longVal[5] & 0xFFL) << 16)
-                | ((longVal[6] & 0xFFL) << 8) | ((longVal[7] & 0xFFL) << 0);
+        return getLong(bytes, 0);
     }
 
-    public static byte[] toBytes(long l) {
-        byte[] result = new byte[8];
-        for (int i = 7; i >= 0; i--) {
-            result[i] = (byte) (l & 0xFF);
+    /** Decodes a big-endian long at the index, without copying the array */
+    static long getLong(byte[] b, int i) {
+        return ((b[i] & 0xFFL) << 56) | ((b[i + 1] & 0xFFL) << 48) | ((b[i + 2] & 0xFFL) << 40)
+                | ((b[i + 3] & 0xFFL) << 32) | ((b[i + 4] & 0xFFL) << 24) | ((b[i + 5] & 0xFFL) << 16)
+                | ((b[i + 6] & 0xFFL) << 8) | ((b[i + 7] & 0xFFL) << 0);
+    }
+
+    /** Decodes a big-endian int at the index, without copying the array */
+    static int getInt(byte[] b, int i) {
+        return ((b[i] & 0xFF) << 24) | ((b[i + 1] & 0xFF) << 16) | ((b[i + 2] & 0xFF) << 8) | (b[i + 3] & 0xFF);
+    }
+
+    /** Encodes a big-endian long at the index */
+    static void putLong(byte[] b, int i, long l) {
+        for (int j = 7; j >= 0; j--) {
+            b[i + j] = (byte) (l & 0xFF);
             l >>= 8;
         }
+    }
+
+    /** Encodes a big-endian int at the index */
+    static void putInt(byte[] b, int i, int v) {
+        b[i] = (byte) (v >>> 24);
+        b[i + 1] = (byte) (v >>> 16);
+        b[i + 2] = (byte) (v >>> 8);
+        b[i + 3] = (byte) v;
+    }
+
+    public static byte[] toBytes(long l) {
+        byte[] result = new byte[8];
+        putLong(result, 0, l);
         return result;
     }
 }
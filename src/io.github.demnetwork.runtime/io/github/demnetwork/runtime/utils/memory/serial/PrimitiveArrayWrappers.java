@@ -0,0 +1,367 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory.serial;
+
+import static io.github.demnetwork.runtime.utils.memory.serial.MemorySerializableRegistry.UNSAFE;
+import java.io.IOException;
+import sun.misc.Unsafe;
+
+/**
+ * Wrappers for arrays of primitives. Unlike {@link ArrayWrapper}, the elements
+ * are not encoded as objects: a wrapper writes the length followed by the
+ * elements as contiguous big-endian data, which off-heap streams copy in bulk.
+ */
+public final class PrimitiveArrayWrappers {
+    private PrimitiveArrayWrappers() {
+    }
+
+    private static int readLength(MemoryInputStream mis) throws IOException {
+        int len = mis.readInt();
+        if (len < 0)
+            throw new IOException("Corrupt or Incomplete data");
+        return len;
+    }
+
+    public static final class BooleanArrayWrapper implements MemorySerializable, Wrapper<boolean[]> {
+        private final boolean[] arr;
+        private static final long ARR_OFFSET = MemoryUtils.fieldOffset(BooleanArrayWrapper.class, "arr");
+
+        public BooleanArrayWrapper(boolean[] arr) {
+            if (arr == null)
+                throw new NullPointerException();
+            this.arr = arr.clone();
+        }
+
+        @Override
+        public void writeObj(MemoryOutputStream mos) throws IOException {
+            mos.writeInt(this.arr.length);
+            mos.writeArray(this.arr, 0, this.arr.length);
+        }
+
+        /** This method writes values to this instance {@inheritDoc} */
+        @Override
+        public BooleanArrayWrapper readObj(MemoryInputStream mis) throws IOException {
+            int len = readLength(mis);
+            boolean[] a = new boolean[len];
+            mis.readArray(a, 0, len);
+            for (int i = 0; i < len; i++)
+                a[i] = UNSAFE.getByte(a, (long) Unsafe.ARRAY_BOOLEAN_BASE_OFFSET + i) != 0; // Normalize
+            UNSAFE.putObject(this, ARR_OFFSET, a);
+            return this;
+        }
+
+        @Override
+        public boolean[] getValue() {
+            return this.arr.clone();
+        }
+
+        public boolean get(int index) {
+            return this.arr[index];
+        }
+
+        public int length() {
+            return this.arr.length;
+        }
+    }
+
+    public static final class ByteArrayWrapper implements MemorySerializable, Wrapper<byte[]> {
+        private final byte[] arr;
+        private static final long ARR_OFFSET = MemoryUtils.fieldOffset(ByteArrayWrapper.class, "arr");
+
+        public ByteArrayWrapper(byte[] arr) {
+            if (arr == null)
+                throw new NullPointerException();
+            this.arr = arr.clone();
+        }
+
+        @Override
+        public void writeObj(MemoryOutputStream mos) throws IOException {
+            mos.writeInt(this.arr.length);
+            mos.writeArray(this.arr, 0, this.arr.length);
+        }
+
+        /** This method writes values to this instance {@inheritDoc} */
+        @Override
+        public ByteArrayWrapper readObj(MemoryInputStream mis) throws IOException {
+            int len = readLength(mis);
+            byte[] a = new byte[len];
+            mis.readArray(a, 0, len);
+            UNSAFE.putObject(this, ARR_OFFSET, a);
+            return this;
+        }
+
+        @Override
+        public byte[] getValue() {
+            return this.arr.clone();
+        }
+
+        public byte get(int index) {
+            return this.arr[index];
+        }
+
+        public int length() {
+            return this.arr.length;
+        }
+    }
+
+    public static final class CharArrayWrapper implements MemorySerializable, Wrapper<char[]> {
+        private final char[] arr;
+        private static final long ARR_OFFSET = MemoryUtils.fieldOffset(CharArrayWrapper.class, "arr");
+
+        public CharArrayWrapper(char[] arr) {
+            if (arr == null)
+                throw new NullPointerException();
+            this.arr = arr.clone();
+        }
+
+        @Override
+        public void writeObj(MemoryOutputStream mos) throws IOException {
+            mos.writeInt(this.arr.length);
+            mos.writeArray(this.arr, 0, this.arr.length);
+        }
+
+        /** This method writes values to this instance {@inheritDoc} */
+        @Override
+        public CharArrayWrapper readObj(MemoryInputStream mis) throws IOException {
+            int len = readLength(mis);
+            char[] a = new char[len];
+            mis.readArray(a, 0, len);
+            UNSAFE.putObject(this, ARR_OFFSET, a);
+            return this;
+        }
+
+        @Override
+        public char[] getValue() {
+            return this.arr.clone();
+        }
+
+        public char get(int index) {
+            return this.arr[index];
+        }
+
+        public int length() {
+            return this.arr.length;
+        }
+    }
+
+    public static final class ShortArrayWrapper implements MemorySerializable, Wrapper<short[]> {
+        private final short[] arr;
+        private static final long ARR_OFFSET = MemoryUtils.fieldOffset(ShortArrayWrapper.class, "arr");
+
+        public ShortArrayWrapper(short[] arr) {
+            if (arr == null)
+                throw new NullPointerException();
+            this.arr = arr.clone();
+        }
+
+        @Override
+        public void writeObj(MemoryOutputStream mos) throws IOException {
+            mos.writeInt(this.arr.length);
+            mos.writeArray(this.arr, 0, this.arr.length);
+        }
+
+        /** This method writes values to this instance {@inheritDoc} */
+        @Override
+        public ShortArrayWrapper readObj(MemoryInputStream mis) throws IOException {
+            int len = readLength(mis);
+            short[] a = new short[len];
+            mis.readArray(a, 0, len);
+            UNSAFE.putObject(this, ARR_OFFSET, a);
+            return this;
+        }
+
+        @Override
+        public short[] getValue() {
+            return this.arr.clone();
+        }
+
+        public short get(int index) {
+            return this.arr[index];
+        }
+
+        public int length() {
+            return this.arr.length;
+        }
+    }
+
+    public static final class IntArrayWrapper implements MemorySerializable, Wrapper<int[]> {
+        private final int[] arr;
+        private static final long ARR_OFFSET = MemoryUtils.fieldOffset(IntArrayWrapper.class, "arr");
+
+        public IntArrayWrapper(int[] arr) {
+            if (arr == null)
+                throw new NullPointerException();
+            this.arr = arr.clone();
+        }
+
+        @Override
+        public void writeObj(MemoryOutputStream mos) throws IOException {
+            mos.writeInt(this.arr.length);
+            mos.writeArray(this.arr, 0, this.arr.length);
+        }
+
+        /** This method writes values to this instance {@inheritDoc} */
+        @Override
+        public IntArrayWrapper readObj(MemoryInputStream mis) throws IOException {
+            int len = readLength(mis);
+            int[] a = new int[len];
+            mis.readArray(a, 0, len);
+            UNSAFE.putObject(this, ARR_OFFSET, a);
+            return this;
+        }
+
+        @Override
+        public int[] getValue() {
+            return this.arr.clone();
+        }
+
+        public int get(int index) {
+            return this.arr[index];
+        }
+
+        public int length() {
+            return this.arr.length;
+        }
+    }
+
+    public static final class LongArrayWrapper implements MemorySerializable, Wrapper<long[]> {
+        private final long[] arr;
+        private static final long ARR_OFFSET = MemoryUtils.fieldOffset(LongArrayWrapper.class, "arr");
+
+        public LongArrayWrapper(long[] arr) {
+            if (arr == null)
+                throw new NullPointerException();
+            this.arr = arr.clone();
+        }
+
+        @Override
+        public void writeObj(MemoryOutputStream mos) throws IOException {
+            mos.writeInt(this.arr.length);
+            mos.writeArray(this.arr, 0, this.arr.length);
+        }
+
+        /** This method writes values to this instance {@inheritDoc} */
+        @Override
+        public LongArrayWrapper readObj(MemoryInputStream mis) throws IOException {
+            int len = readLength(mis);
+            long[] a = new long[len];
+            mis.readArray(a, 0, len);
+            UNSAFE.putObject(this, ARR_OFFSET, a);
+            return this;
+        }
+
+        @Override
+        public long[] getValue() {
+            return this.arr.clone();
+        }
+
+        public long get(int index) {
+            return this.arr[index];
+        }
+
+        public int length() {
+            return this.arr.length;
+        }
+    }
+
+    public static final class FloatArrayWrapper implements MemorySerializable, Wrapper<float[]> {
+        private final float[] arr;
+        private static final long ARR_OFFSET = MemoryUtils.fieldOffset(FloatArrayWrapper.class, "arr");
+
+        public FloatArrayWrapper(float[] arr) {
+            if (arr == null)
+                throw new NullPointerException();
+            this.arr = arr.clone();
+        }
+
+        @Override
+        public void writeObj(MemoryOutputStream mos) throws IOException {
+            mos.writeInt(this.arr.length);
+            mos.writeArray(this.arr, 0, this.arr.length);
+        }
+
+        /** This method writes values to this instance {@inheritDoc} */
+        @Override
+        public FloatArrayWrapper readObj(MemoryInputStream mis) throws IOException {
+            int len = readLength(mis);
+            float[] a = new float[len];
+            mis.readArray(a, 0, len);
+            UNSAFE.putObject(this, ARR_OFFSET, a);
+            return this;
+        }
+
+        @Override
+        public float[] getValue() {
+            return this.arr.clone();
+        }
+
+        public float get(int index) {
+            return this.arr[index];
+        }
+
+        public int length() {
+            return this.arr.length;
+        }
+    }
+
+    public static final class DoubleArrayWrapper implements MemorySerializable, Wrapper<double[]> {
+        private final double[] arr;
+        private static final long ARR_OFFSET = MemoryUtils.fieldOffset(DoubleArrayWrapper.class, "arr");
+
+        public DoubleArrayWrapper(double[] arr) {
+            if (arr == null)
+                throw new NullPointerException();
+            this.arr = arr.clone();
+        }
+
+        @Override
+        public void writeObj(MemoryOutputStream mos) throws IOException {
+            mos.writeInt(this.arr.length);
+            mos.writeArray(this.arr, 0, this.arr.length);
+        }
+
+        /** This method writes values to this instance {@inheritDoc} */
+        @Override
+        public DoubleArrayWrapper readObj(MemoryInputStream mis) throws IOException {
+            int len = readLength(mis);
+            double[] a = new double[len];
+            mis.readArray(a, 0, len);
+            UNSAFE.putObject(this, ARR_OFFSET, a);
+            return this;
+        }
+
+        @Override
+        public double[] getValue() {
+            return this.arr.clone();
+        }
+
+        public double get(int index) {
+            return this.arr[index];
+        }
+
+        public int length() {
+            return this.arr.length;
+        }
+    }
+}
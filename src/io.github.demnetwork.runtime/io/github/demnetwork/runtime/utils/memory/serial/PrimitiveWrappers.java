@@ -26,11 +26,11 @@ package io.github.demnetwork.runtime.utils.memory.serial;
 import static io.github.demnetwork.runtime.utils.memory.serial.MemorySerializableRegistry.UNSAFE;
 import java.io.EOFException;
 import java.io.IOException;
-import java.lang.reflect.Field;
 
 public final class PrimitiveWrappers {
     public static final class DoubleWrapper extends Number implements MemorySerializable, PrimitiveWrapper<Double> {
         private final double d;
+        private static final long D_OFFSET = MemoryUtils.fieldOffset(DoubleWrapper.class, "d");
 
         public DoubleWrapper(double d) {
             this.d = d;
@@ -38,23 +38,14 @@ public final class PrimitiveWrappers {
 
         @Override
         public void writeObj(MemoryOutputStream mos) throws IOException {
-            mos.write(MemoryUtils.toBytes(Double.doubleToRawLongBits(this.d)), 0, 8);
+            mos.writeLong(Double.doubleToRawLongBits(this.d));
         }
 
         /** This method writes values to this instance {@inheitDoc} */
         @Override
         public DoubleWrapper readObj(MemoryInputStream mis) throws IOException {
-            try {
-                Field f = DoubleWrapper.class.getDeclaredField("d");
-                byte[] val = new byte[8];
-                int r = mis.read(val, 0, 8);
-                if (r == -1)
-                    throw new EOFException("Reached EOF");
-                UNSAFE.putDouble(this, UNSAFE.objectFieldOffset(f), Double.longBitsToDouble(MemoryUtils.toLong(val)));
-                return this;
-            } catch (ReflectiveOperationException e) {
-                throw new IOException("Unable to read Object");
-            }
+            UNSAFE.putDouble(this, D_OFFSET, Double.longBitsToDouble(mis.readLong()));
+            return this;
         }
 
         @Override
@@ -87,6 +78,7 @@ public final class PrimitiveWrappers {
     public static final class LongWrapper extends Number implements MemorySerializable, PrimitiveWrapper<Long> {
         private final long v;
         public static final long SIZE = 8;
+        private static final long V_OFFSET = MemoryUtils.fieldOffset(LongWrapper.class, "v");
 
         public LongWrapper(long v) {
             this.v = v;
@@ -94,25 +86,14 @@ public final class PrimitiveWrappers {
 
         @Override
         public void writeObj(MemoryOutputStream mos) throws IOException {
-            mos.write(MemoryUtils.toBytes(this.v), 0, 8);
+            mos.writeLong(this.v);
         }
 
         /** This method writes values to this instance {@inheitDoc} */
         @Override
         public LongWrapper readObj(MemoryInputStream mis) throws IOException {
-            try {
-                Field f = LongWrapper.class.getDeclaredField("v");
-                byte[] val = new byte[8];
-                int r = mis.read(val, 0, 8);
-                if (r == -1)
-                    throw new EOFException("Reached EOF");
-                if (r < 8)
-                    throw new EOFException("Currupted or Incomplete data");
-                UNSAFE.putLong(this, UNSAFE.objectFieldOffset(f), MemoryUtils.toLong(val));
-                return this;
-            } catch (ReflectiveOperationException e) {
-                throw new IOException("Unable to read Object");
-            }
+            UNSAFE.putLong(this, V_OFFSET, mis.readLong());
+            return this;
         }
 
         @Override
@@ -148,6 +129,7 @@ public final class PrimitiveWrappers {
 
     public static final class CharacterWrapper implements MemorySerializable, PrimitiveWrapper<Character> {
         private final char c;
+        private static final long C_OFFSET = MemoryUtils.fieldOffset(CharacterWrapper.class, "c");
 
         public CharacterWrapper(char c) {
             this.c = c;
@@ -160,24 +142,13 @@ public final class PrimitiveWrappers {
 
         @Override
         public void writeObj(MemoryOutputStream mos) throws IOException {
-            mos.write(MemoryUtils.toBytes(this.c), 6, 2);
+            mos.writeChar(this.c);
         }
 
         @Override
         public MemorySerializable readObj(MemoryInputStream mis) throws IOException {
-            try {
-                Field f = CharacterWrapper.class.getDeclaredField("c");
-                byte[] val = new byte[8];
-                int r = mis.read(val, 6, 2); // Use proper Offset
-                if (r == -1)
-                    throw new EOFException("Reached EOF");
-                if (r < 2)
-                    throw new EOFException("Currupted or Incomplete data");
-                UNSAFE.putChar(this, UNSAFE.objectFieldOffset(f), (char) MemoryUtils.toLong(val));
-                return this;
-            } catch (ReflectiveOperationException e) {
-                throw new IOException("Unable to read Object");
-            }
+            UNSAFE.putChar(this, C_OFFSET, mis.readChar());
+            return this;
         }
 
         public char charValue() {
@@ -212,9 +183,9 @@ public final class PrimitiveWrappers {
                 throw new EOFException("Reached EOF");
             if (b != 0 && b != 1)
                 throw new IOException("Corrupt Data found");
-            if (b == 0)
-                return BooleanWrapper.TRUE;
             if (b == 1)
+                return BooleanWrapper.TRUE;
+            if (b == 0)
                 return BooleanWrapper.FALSE;
             throw new AssertionError("Something went wrong with checks");
         }
@@ -228,6 +199,7 @@ public final class PrimitiveWrappers {
     public static final class IntWrapper extends Number implements MemorySerializable, PrimitiveWrapper<Integer> {
         private final int i;
         public static final long SIZE = 4;
+        private static final long I_OFFSET = MemoryUtils.fieldOffset(IntWrapper.class, "i");
 
         public IntWrapper(int i) {
             this.i = i;
@@ -235,25 +207,14 @@ public final class PrimitiveWrappers {
 
         @Override
         public void writeObj(MemoryOutputStream mos) throws IOException {
-            mos.write(MemoryUtils.toBytes(this.i), 4, 4);
+            mos.writeInt(this.i);
         }
 
         /** This method writes values to this instance {@inheitDoc} */
         @Override
         public IntWrapper readObj(MemoryInputStream mis) throws IOException {
-            try {
-                Field f = IntWrapper.class.getDeclaredField("i");
-                byte[] val = new byte[8];
-                int r = mis.read(val, 4, 4); // Write to index 4-7 to ensure proper interpretation of MemoryUtils
-                if (r == -1)
-                    throw new EOFException("Reached EOF");
-                if (r < 4)
-                    throw new EOFException("Currupted or Incomplete data");
-                UNSAFE.putInt(this, UNSAFE.objectFieldOffset(f), (int) MemoryUtils.toLong(val));
-                return this;
-            } catch (ReflectiveOperationException e) {
-                throw new IOException("Unable to read Object");
-            }
+            UNSAFE.putInt(this, I_OFFSET, mis.readInt());
+            return this;
         }
 
         @Override
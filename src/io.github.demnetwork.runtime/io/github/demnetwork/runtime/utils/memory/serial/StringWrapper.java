@@ -24,10 +24,20 @@
 package io.github.demnetwork.runtime.utils.memory.serial;
 
 import static io.github.demnetwork.runtime.utils.memory.serial.MemorySerializableRegistry.UNSAFE;
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 /**
+ * Strings are written in a compact form: a negative header <code>~len</code>,
+ * a flag byte ({@link #LATIN1} or {@link #UTF8}) and <code>len</code> bytes of
+ * data. Strings whose characters all fit in one byte use Latin-1, the others
+ * use UTF-8.
+ * <p>
+ * The legacy form, a non-negative byte length followed by UTF-16BE data, is
+ * still read.
+ * <p>
  * <strong>Note:</strong> This class assumes that input streams passed to
  * {@code readObj}
  * are trusted and well-formed. It does not perform validation or enforce
@@ -42,6 +52,11 @@ import java.nio.charset.Charset;
  */
 public final class StringWrapper implements MemorySerializable, Wrapper<String> {
     private final String str;
+    private static final long STR_OFFSET = MemoryUtils.fieldOffset(StringWrapper.class, "str");
+    public static final byte LATIN1 = 0;
+    public static final byte UTF8 = 1;
+    private static final Charset[] CHARSETS = new Charset[] { StandardCharsets.ISO_8859_1,
+            StandardCharsets.UTF_8 };
 
     public StringWrapper(String str) {
         if (str == null)
@@ -56,38 +71,41 @@ public final class StringWrapper implements MemorySerializable, Wrapper<String>
 
     @Override
     public void writeObj(MemoryOutputStream mos) throws IOException {
-        byte[] bytes = str.getBytes(Charset.forName("UTF-16BE"));
-        int len = bytes.length;
-        byte[] lenBytes = MemoryUtils.toBytes(len);
-        mos.write(lenBytes, 4, 4);
+        byte flag = isLatin1(str) ? LATIN1 : UTF8;
+        byte[] bytes = str.getBytes(CHARSETS[flag]);
+        mos.writeInt(~bytes.length);
+        mos.write(flag);
         mos.write(bytes);
     }
 
+    private static boolean isLatin1(String s) {
+        for (int i = 0; i < s.length(); i++)
+            if (s.charAt(i) > 0xFF)
+                return false;
+        return true;
+    }
+
     @Override
     public MemorySerializable readObj(MemoryInputStream mis) throws IOException {
-        byte[] lenBytes = new byte[4];
-        int readLen = mis.read(lenBytes, 0, 4);
-        if (readLen != 4)
-            throw new IOException("Reading length failed");
-        int l = (int) MemoryUtils.toLong(new byte[] { 0, 0, 0, 0, lenBytes[0], lenBytes[1], lenBytes[2], lenBytes[3] });
-
-        byte[] buf = new byte[Math.min(6144, l)];
-        StringBuilder sb = new StringBuilder(l);
-        while (l > 0) {
-            int r = mis.read(buf, 0, Math.min(6144, l));
-            if (r == -1)
-                throw new IOException("Unexpected EOF during string read");
-            sb.append(new String(buf, 0, r, "UTF-16BE"));
-            l -= r;
-        }
-
-        String result = sb.toString();
-        try {
-            UNSAFE.putObject(this, UNSAFE.objectFieldOffset(StringWrapper.class.getDeclaredField("str")), result);
-            return this;
-        } catch (ReflectiveOperationException e) {
-            return new StringWrapper(result); // Fallback
+        int h = mis.readInt();
+        Charset cs;
+        int l;
+        if (h >= 0) { // Legacy form
+            cs = StandardCharsets.UTF_16BE;
+            l = h;
+        } else {
+            int flag = mis.read();
+            if (flag == -1)
+                throw new EOFException("Unexpected EOF during string read");
+            if (flag >= CHARSETS.length)
+                throw new IOException("Unknown string encoding: " + flag);
+            cs = CHARSETS[flag];
+            l = ~h;
         }
+        byte[] buf = new byte[l];
+        mis.readFully(buf, 0, l); // Whole string at once, so no character is split
+        UNSAFE.putObject(this, STR_OFFSET, new String(buf, cs));
+        return this;
     }
 
     @Override
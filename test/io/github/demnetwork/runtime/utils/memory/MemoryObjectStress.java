@@ -0,0 +1,287 @@
+/*
+ *   Copyright (c) 2025 DEMnetwork
+ *   All rights reserved.
+
+ *   Permission is hereby granted, free of charge, to any person obtaining a copy
+ *   of this software and associated documentation files (the "Software"), to deal
+ *   in the Software without restriction, including without limitation the rights
+ *   to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *   copies of the Software, and to permit persons to whom the Software is
+ *   furnished to do so, subject to the following conditions:
+ 
+ *   The above copyright notice and this permission notice shall be included in all
+ *   copies or substantial portions of the Software.
+ 
+ *   THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *   IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *   FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *   AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *   LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *   OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *   SOFTWARE.
+ */
+
+package io.github.demnetwork.runtime.utils.memory;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import io.github.demnetwork.runtime.utils.memory.MemoryObject.FieldMetadata;
+import io.github.demnetwork.runtime.utils.memory.reflect.MemoryObjectField;
+import io.github.demnetwork.runtime.utils.memory.serial.MemorySerializable;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveArrayWrappers.LongArrayWrapper;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.IntWrapper;
+import io.github.demnetwork.runtime.utils.memory.serial.PrimitiveWrappers.LongWrapper;
+
+/**
+ * Stress test of the write lock of {@link MemoryObject}, in the spirit of a
+ * jcstress test: writers set fields through {@link MemoryObjectField} and add
+ * new fields, while readers resolve names, read values and take snapshots.
+ * <p>
+ * Every value written is <code>(writer << 32) | i</code>, with
+ * <code>i</code> increasing, so a reader detects torn or stale values. The
+ * atomic updates of {@link MemoryObjectFieldHandle} are checked by counting
+ * concurrently, with a known final count.
+ * <p>
+ * The build runs it in the <code>test</code> phase; it throws an
+ * {@link AssertionError} on failure.
+ */
+public final class MemoryObjectStress {
+    private static final int WRITERS = 2;
+    private static final int READERS = 3;
+    private static final int WRITES = 20000;
+    private static final int ADDED_FIELDS = 2000;
+    private static final int COUNTERS = 4;
+    private static final int INCREMENTS = 20000;
+
+    private MemoryObjectStress() {
+    }
+
+    private static final class Obj extends MemoryObjectImpl {
+        Obj(OffHeapMemoryStorage storage) throws IOException {
+            super(storage);
+            addField("a", new LongWrapper(0L), Modifier.PUBLIC);
+        }
+
+        Obj(OffHeapMemoryStorage storage, String... counters) throws IOException {
+            super(storage);
+            for (String name : counters)
+                addField(name, new IntWrapper(0), Modifier.PUBLIC);
+        }
+
+        int add(String name) throws IOException {
+            return addField(name, new LongWrapper(-1L), Modifier.PUBLIC);
+        }
+    }
+
+    private static long valueOf(MemorySerializable v) {
+        return ((LongWrapper) v).longValue();
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean ok = snapshotSeesFieldWrite();
+        ok &= fieldWriteKeepsLayout();
+        ok &= concurrentAccess();
+        ok &= atomicUpdates();
+        System.out.println(ok ? "PASSED" : "FAILED");
+        if (!ok)
+            throw new AssertionError("MemoryObjectStress failed");
+    }
+
+    /** A snapshot taken after a write through a MemoryObjectField sees the new value */
+    private static boolean snapshotSeesFieldWrite() throws Exception {
+        Obj o = new Obj(new OffHeapMemoryStorage(1 << 16));
+        try (MemoryObjectField f = new MemoryObjectField(o, "a")) {
+            o.snapshot().close(); // Caches the image of the current version
+            for (long i = 1; i <= 100; i++) {
+                f.set(new LongWrapper(i));
+                try (MemoryObjectSnapshot s = o.snapshot()) {
+                    long v = valueOf((MemorySerializable) s.get("a"));
+                    if (v != i) {
+                        System.out.println("Stale snapshot: expected " + i + ", got " + v);
+                        return false;
+                    }
+                }
+            }
+        } finally {
+            o.close();
+            o.getStorage().close();
+        }
+        return true;
+    }
+
+    /** A flush through a MemoryObjectField writes the field index, which lazy readers need */
+    private static boolean fieldWriteKeepsLayout() throws Exception {
+        Obj o = new Obj(new OffHeapMemoryStorage(1 << 16));
+        try (MemoryObjectField f = new MemoryObjectField(o, "a")) {
+            f.set(new LongWrapper(42L));
+            try (OffHeapMemoryInputStream is = o.getStorage().toInputStream(false)) {
+                is.readObj(); // Size
+                is.readObj(); // Field count
+                if (!(is.readObj() instanceof LongArrayWrapper)) {
+                    System.out.println("Field write dropped the field index");
+                    return false;
+                }
+            }
+            MemoryObjectImpl lazy = new MemoryObjectImpl(o.getStorage(), -1L, true, true);
+            long v = valueOf((MemorySerializable) lazy.get("a"));
+            if (v != 42L) {
+                System.out.println("Lazy read of a field write: expected 42, got " + v);
+                return false;
+            }
+        } finally {
+            o.close();
+            o.getStorage().close();
+        }
+        return true;
+    }
+
+    /**
+     * Counters incremented concurrently by getAndAddInt and by compareAndSetInt
+     * loops end at the exact count, so no update is lost
+     */
+    private static boolean atomicUpdates() throws Exception {
+        final Obj o = new Obj(new OffHeapMemoryStorage(1 << 16), "added", "swapped");
+        final MemoryObjectFieldHandle<IntWrapper> added = MemoryObjectFieldHandle.of(o, "added", IntWrapper.class);
+        final MemoryObjectFieldHandle<IntWrapper> swapped = MemoryObjectFieldHandle.of(o, "swapped",
+                IntWrapper.class);
+        final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        Thread[] counters = new Thread[COUNTERS];
+        for (int c = 0; c < COUNTERS; c++) {
+            counters[c] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        int last = -1;
+                        for (int i = 0; i < INCREMENTS; i++) {
+                            int prev = added.getAndAddInt(o, 1);
+                            if (prev < 0 || prev >= COUNTERS * INCREMENTS)
+                                failures.add("getAndAddInt returned " + prev);
+                            else if (prev <= last)
+                                failures.add("getAndAddInt went back: " + prev + " <= " + last);
+                            last = prev;
+                            int v;
+                            do {
+                                v = swapped.getInt(o);
+                            } while (!swapped.compareAndSetInt(o, v, v + 1));
+                        }
+                    } catch (Throwable e) {
+                        failures.add("Counter: " + e);
+                    }
+                }
+            });
+        }
+        for (Thread t : counters)
+            t.start();
+        for (Thread t : counters)
+            t.join();
+        int expected = COUNTERS * INCREMENTS;
+        if (added.getInt(o) != expected)
+            failures.add("getAndAddInt count: expected " + expected + ", got " + added.getInt(o));
+        if (swapped.getInt(o) != expected)
+            failures.add("compareAndSetInt count: expected " + expected + ", got " + swapped.getInt(o));
+        MemoryObjectImpl lazy = new MemoryObjectImpl(o.getStorage(), -1L, true, true);
+        if (((IntWrapper) lazy.get("added")).intValue() != expected)
+            failures.add("Storage count: " + ((IntWrapper) lazy.get("added")).intValue());
+        o.close();
+        o.getStorage().close();
+        for (String s : failures)
+            System.out.println(s);
+        return failures.isEmpty();
+    }
+
+    private static boolean concurrentAccess() throws Exception {
+        final Obj o = new Obj(new OffHeapMemoryStorage(1 << 20));
+        final AtomicBoolean stop = new AtomicBoolean();
+        final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        Thread[] writers = new Thread[WRITERS];
+        for (int w = 0; w < WRITERS; w++) {
+            final long id = w;
+            writers[w] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try (MemoryObjectField f = new MemoryObjectField(o, "a")) {
+                        for (int i = 1; i <= WRITES; i++)
+                            f.set(new LongWrapper((id << 32) | i), (i & 7) == 0);
+                    } catch (Throwable e) {
+                        failures.add("Writer: " + e);
+                    }
+                }
+            });
+        }
+        Thread adder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < ADDED_FIELDS; i++)
+                        if (o.add("f" + i) != i + 2)
+                            failures.add("Unexpected ID for f" + i);
+                } catch (Throwable e) {
+                    failures.add("Adder: " + e);
+                }
+            }
+        });
+        Thread[] readers = new Thread[READERS];
+        for (int r = 0; r < READERS; r++) {
+            readers[r] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long[] last = new long[WRITERS];
+                    try {
+                        while (!stop.get()) {
+                            check(valueOf((MemorySerializable) o.get("a")), last);
+                            int n = o.getFieldCount();
+                            if (n > 1) {
+                                String name = "f" + (n - 2);
+                                int fid = o.getFieldID(name);
+                                if (valueOf((MemorySerializable) o.get(fid)) != -1L)
+                                    failures.add("Wrong value of " + name);
+                            }
+                            try (MemoryObjectSnapshot s = o.snapshot()) {
+                                valueOf((MemorySerializable) s.get("a"));
+                                Map<String, FieldMetadata> m = s.getFieldMetadataAsMap();
+                                if (!m.containsKey("a"))
+                                    failures.add("Snapshot lost field a");
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failures.add("Reader: " + e);
+                    }
+                }
+
+                private void check(long v, long[] last) {
+                    int w = (int) (v >>> 32);
+                    long i = v & 0xFFFFFFFFL;
+                    if (v == 0L)
+                        return;
+                    if (w < 0 || w >= WRITERS || i < 1 || i > WRITES)
+                        failures.add("Torn value: " + Long.toHexString(v));
+                    else if (i < last[w])
+                        failures.add("Value went back: " + i + " < " + last[w]);
+                    else
+                        last[w] = i;
+                }
+            });
+        }
+        for (Thread t : readers)
+            t.start();
+        for (Thread t : writers)
+            t.start();
+        adder.start();
+        for (Thread t : writers)
+            t.join();
+        adder.join();
+        stop.set(true);
+        for (Thread t : readers)
+            t.join();
+        if (o.getFieldCount() != ADDED_FIELDS + 1)
+            failures.add("Field count: " + o.getFieldCount());
+        o.close();
+        o.getStorage().close();
+        for (String s : failures)
+            System.out.println(s);
+        return failures.isEmpty();
+    }
+}